@@ -2,8 +2,17 @@ package com.jaky.ecomerce.eshop;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+/**
+ * Request handling and {@code @Async} methods run on virtual threads when
+ * {@code spring.threads.virtual.enabled} is true and the application runs on Java 21 or later.
+ * Password hashing always stays on its own bounded pool of platform threads.
+ */
 @SpringBootApplication
+@EnableAsync
+@EnableScheduling
 public class EshopApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,88 @@
+package com.jaky.ecomerce.eshop.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings.
+ * {@link #mightContain(String)} never returns false for an added string, and returns true for a string
+ * which was not added with about the configured probability. Strings cannot be removed.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/08/2023, 8:00 PM
+ **/
+public class BloomFilter {
+    /**
+     * Bits of the filter, 64 per array element.
+     */
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    /**
+     * Number of bits set per string.
+     */
+    private final int hashCount;
+
+    /**
+     * Create a filter sized for the expected number of strings.
+     *
+     * @param expectedInsertions expected number of added strings.
+     * @param falsePositiveRate  probability that a string which was not added is reported.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long insertions = Math.max(expectedInsertions, 1);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Math.max((optimalBits + 63) / 64, 1), Integer.MAX_VALUE - 8);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / insertions * Math.log(2)));
+    }
+
+    /**
+     * Add a string.
+     *
+     * @param value string to add.
+     */
+    public void put(String value) {
+        long hash1 = Hashing.hash(value);
+        long hash2 = Hashing.rehash(hash1);
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, bitSize);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (current, update) -> current | update);
+            }
+        }
+    }
+
+    /**
+     * Returns false if the string was definitely not added.
+     *
+     * @param value string to check.
+     * @return true if the string may have been added.
+     */
+    public boolean mightContain(String value) {
+        long hash1 = Hashing.hash(value);
+        long hash2 = Hashing.rehash(hash1);
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, bitSize);
+
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+}
@@ -0,0 +1,53 @@
+package com.jaky.ecomerce.eshop.cache;
+
+/**
+ * Hash functions of the probabilistic structures. Two independent 64-bit hashes of a string are
+ * combined as {@code hash1 + i * hash2} to get the i-th hash.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/12/2023, 7:20 PM
+ **/
+final class Hashing {
+    private Hashing() {
+    }
+
+    /**
+     * 64-bit FNV-1a of the characters, finished with a mixing step so all bits depend on the input.
+     */
+    static long hash(String value) {
+        return hash(value, 0);
+    }
+
+    /**
+     * 64-bit FNV-1a of the characters starting from a seeded state, finished with a mixing step.
+     * With a secret random seed, colliding values cannot be searched for offline.
+     */
+    static long hash(String value, long seed) {
+        long hash = 0xCBF29CE484222325L ^ seed;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Second hash derived from the first one.
+     */
+    static long rehash(long hash) {
+        return mix(hash ^ 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Finalization step of MurmurHash3.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
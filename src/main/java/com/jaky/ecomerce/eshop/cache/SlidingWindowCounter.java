@@ -0,0 +1,190 @@
+package com.jaky.ecomerce.eshop.cache;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate number of events per key within a sliding time window, in fixed memory.
+ * The window is divided into buckets, each bucket is a count-min sketch: every key is counted in one
+ * cell of each row, and the estimate is the smallest of its cells. Estimates are never lower than the
+ * real count within the window, unrelated keys sharing cells may raise them.
+ * The bucket which falls out of the window is cleared and reused for the current time.
+ * Keys are hashed with a random seed of the counter, so which keys share cells cannot be predicted.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/12/2023, 7:30 PM
+ **/
+public class SlidingWindowCounter {
+    /**
+     * Number of rows of every sketch.
+     */
+    private static final int DEPTH = 4;
+
+    private final int width;
+
+    private final int bucketCount;
+
+    private final long bucketMillis;
+
+    /**
+     * Cells of all buckets, bucket by bucket and row by row.
+     */
+    private final AtomicLongArray cells;
+
+    /**
+     * Time slot counted by every bucket, as number of bucket durations since the epoch.
+     */
+    private final AtomicLongArray bucketSlots;
+
+    /**
+     * Source of the current time in milliseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Secret seed of the key hashes.
+     */
+    private final long seed = new SecureRandom().nextLong();
+
+    /**
+     * Create counter.
+     *
+     * @param windowMillis length of the window in milliseconds.
+     * @param bucketCount  number of buckets the window is divided into, the window slides by one bucket.
+     * @param width        number of cells of a sketch row. More cells make estimates more accurate.
+     */
+    public SlidingWindowCounter(long windowMillis, int bucketCount, int width) {
+        this(windowMillis, bucketCount, width, System::currentTimeMillis);
+    }
+
+    /**
+     * Create counter with the given time source.
+     *
+     * @param windowMillis length of the window in milliseconds.
+     * @param bucketCount  number of buckets the window is divided into, the window slides by one bucket.
+     * @param width        number of cells of a sketch row. More cells make estimates more accurate.
+     * @param clock        source of the current time in milliseconds.
+     */
+    public SlidingWindowCounter(long windowMillis, int bucketCount, int width, LongSupplier clock) {
+        this.clock = clock;
+        this.bucketCount = Math.max(bucketCount, 1);
+        this.bucketMillis = Math.max(windowMillis / this.bucketCount, 1);
+        this.width = Math.max(width, 1);
+        this.cells = new AtomicLongArray(this.bucketCount * DEPTH * this.width);
+        this.bucketSlots = new AtomicLongArray(this.bucketCount);
+
+        for (int i = 0; i < this.bucketCount; i++) {
+            bucketSlots.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Count an event of the key.
+     *
+     * @param key key of the event.
+     * @return estimated number of events of the key within the window, including this one.
+     */
+    public long increment(String key) {
+        long slot = clock.getAsLong() / bucketMillis;
+        int bucket = bucket(slot);
+        long hash1 = Hashing.hash(key, seed);
+        long hash2 = Hashing.rehash(hash1);
+
+        for (int row = 0; row < DEPTH; row++) {
+            cells.incrementAndGet(cell(bucket, row, hash1, hash2));
+        }
+        return estimate(slot, hash1, hash2);
+    }
+
+    /**
+     * Returns the estimated number of events of the key within the window.
+     *
+     * @param key key of the events.
+     * @return estimated number of events.
+     */
+    public long estimate(String key) {
+        long hash1 = Hashing.hash(key, seed);
+        return estimate(clock.getAsLong() / bucketMillis, hash1, Hashing.rehash(hash1));
+    }
+
+    /**
+     * Forget the events of the key within the window.
+     * From every bucket the estimate of the key is subtracted from each of its cells. Keys sharing
+     * all their cells of a bucket with this key lose counts as well. That is unlikely for a wide sketch,
+     * and as the hashes are seeded, such a key cannot be chosen on purpose to reset another one.
+     *
+     * @param key key of the events.
+     */
+    public void reset(String key) {
+        long slot = clock.getAsLong() / bucketMillis;
+        long hash1 = Hashing.hash(key, seed);
+        long hash2 = Hashing.rehash(hash1);
+
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            if (bucketSlots.get(bucket) <= slot - bucketCount) {
+                continue;
+            }
+            long count = Long.MAX_VALUE;
+
+            for (int row = 0; row < DEPTH; row++) {
+                count = Math.min(count, cells.get(cell(bucket, row, hash1, hash2)));
+            }
+            if (count == 0) {
+                continue;
+            }
+            for (int row = 0; row < DEPTH; row++) {
+                cells.getAndAccumulate(cell(bucket, row, hash1, hash2), count,
+                        (current, decrement) -> Math.max(current - decrement, 0));
+            }
+        }
+    }
+
+    /**
+     * Returns the duration of one bucket, the time after which the oldest events leave the window.
+     *
+     * @return bucket duration in milliseconds.
+     */
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    private long estimate(long slot, long hash1, long hash2) {
+        long minimum = Long.MAX_VALUE;
+
+        for (int row = 0; row < DEPTH; row++) {
+            long sum = 0;
+
+            for (int bucket = 0; bucket < bucketCount; bucket++) {
+                if (bucketSlots.get(bucket) > slot - bucketCount) {
+                    sum += cells.get(cell(bucket, row, hash1, hash2));
+                }
+            }
+            minimum = Math.min(minimum, sum);
+        }
+        return minimum;
+    }
+
+    /**
+     * Returns the bucket of the time slot, clearing it first if it still holds an older slot.
+     * Events counted concurrently with the clearing may be lost.
+     */
+    private int bucket(long slot) {
+        int bucket = (int) Math.floorMod(slot, (long) bucketCount);
+        long current = bucketSlots.get(bucket);
+
+        if (current < slot && bucketSlots.compareAndSet(bucket, current, slot)) {
+            int start = bucket * DEPTH * width;
+
+            for (int i = start; i < start + DEPTH * width; i++) {
+                cells.set(i, 0);
+            }
+        }
+        return bucket;
+    }
+
+    private int cell(int bucket, int row, long hash1, long hash2) {
+        int column = (int) Long.remainderUnsigned(hash1 + row * hash2, width);
+        return (bucket * DEPTH + row) * width + column;
+    }
+}
@@ -0,0 +1,214 @@
+package com.jaky.ecomerce.eshop.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache whose entries expire after a fixed time to live.
+ * Backed by Caffeine, so reads and writes are amortised O(1), expired entries are dropped
+ * on access and by periodic maintenance, and over the bound the least valuable entries
+ * by recency and frequency are evicted first.
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the cached values.
+ * @author : Jaiky Nguyen
+ * @since : 11/04/2023, 7:30 PM
+ **/
+public class TtlCache<K, V> {
+    /**
+     * Cached entries, each with its own expiration.
+     */
+    private final Cache<K, V> cache;
+
+    /**
+     * Maximum number of entries. The cache stores nothing when it is zero.
+     */
+    private final int maxSize;
+
+    /**
+     * Maximum time to live of an entry in nanoseconds.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Incremented on every invalidation, so that a value loaded before {@link #invalidateAll()} is not kept.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Create cache.
+     *
+     * @param maxSize maximum number of entries.
+     * @param ttl     maximum time to live of an entry.
+     * @param unit    time unit of the time to live.
+     */
+    public TtlCache(int maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, ttl, unit, Ticker.systemTicker());
+    }
+
+    /**
+     * Create cache with the given time source.
+     *
+     * @param maxSize maximum number of entries.
+     * @param ttl     maximum time to live of an entry.
+     * @param unit    time unit of the time to live.
+     * @param ticker  source of the current time in nanoseconds.
+     */
+    TtlCache(int maxSize, long ttl, TimeUnit unit, Ticker ticker) {
+        this.maxSize = Math.max(maxSize, 0);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(this.maxSize)
+                .expireAfter(new Expiry<K, V>() {
+                    @Override
+                    public long expireAfterCreate(K key, V value, long currentTime) {
+                        return ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+                        return ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached value.
+     *
+     * @param key key of the value.
+     * @return cached value or {@code null} if it is absent or expired.
+     */
+    public V get(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Returns the cached value or loads and caches it.
+     * Concurrent lookups of the same key wait for a single load. An {@link #invalidate(Object)}
+     * of the key during the load waits for it and removes the loaded value,
+     * an {@link #invalidateAll()} during the load keeps the value from being cached.
+     * {@code null} values returned by the loader are not cached.
+     *
+     * @param key    key of the value.
+     * @param loader function which loads the value on a cache miss.
+     * @return cached or loaded value.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (maxSize == 0 || ttlNanos <= 0) {
+            return loader.apply(key);
+        }
+        long loadGeneration = generation.get();
+        boolean[] loaded = new boolean[1];
+        V value = cache.get(key, k -> {
+            loaded[0] = true;
+            return loader.apply(k);
+        });
+
+        if (loaded[0] && value != null && loadGeneration != generation.get()) {
+            cache.asMap().remove(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Cache the value for the configured time to live.
+     *
+     * @param key   key of the value.
+     * @param value value to cache.
+     */
+    public void put(K key, V value) {
+        put(key, value, ttlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Cache the value for the given time to live, but not longer than the configured one.
+     *
+     * @param key   key of the value.
+     * @param value value to cache.
+     * @param ttl   time to live of the value.
+     * @param unit  time unit of the time to live.
+     */
+    public void put(K key, V value, long ttl, TimeUnit unit) {
+        long ttlNanos = Math.min(unit.toNanos(ttl), this.ttlNanos);
+
+        if (maxSize == 0 || ttlNanos <= 0) {
+            return;
+        }
+        cache.policy().expireVariably().orElseThrow()
+                .put(key, value, ttlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Remove the value from the cache.
+     *
+     * @param key key of the value.
+     */
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+
+        if (key != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Remove all values from the cache.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the approximate number of entries, which may include expired ones not yet removed.
+     *
+     * @return number of entries.
+     */
+    public int size() {
+        return (int) cache.estimatedSize();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * Returns the share of lookups which found a cached value.
+     *
+     * @return hit ratio from 0 to 1.
+     */
+    public double getHitRatio() {
+        CacheStats stats = cache.stats();
+        return stats.requestCount() == 0 ? 0 : stats.hitRate();
+    }
+
+    /**
+     * Run pending expiration and eviction now instead of on the next cache operations.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+}
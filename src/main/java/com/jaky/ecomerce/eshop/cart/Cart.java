@@ -0,0 +1,115 @@
+package com.jaky.ecomerce.eshop.cart;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Products and quantities in the cart of one user.
+ * Changes are made by {@link CartStore} while it holds the map entry of the cart, readers see the items
+ * without locking. Every change increments the version, so the cart is dirty until that version is persisted.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 8:10 PM
+ **/
+final class Cart {
+    /**
+     * Quantity by product id.
+     */
+    private final Map<Long, Integer> items;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile long persistedVersion;
+
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    Cart(Map<Long, Integer> items) {
+        this.items = new ConcurrentHashMap<>(items);
+    }
+
+    Map<Long, Integer> getItems() {
+        return Collections.unmodifiableMap(items);
+    }
+
+    /**
+     * Add to the quantity of a product.
+     *
+     * @return false if the product is not in the cart and the cart already has the maximum number of products.
+     */
+    boolean add(long productId, int quantity, int maxQuantity, int maxItems) {
+        Integer current = items.get(productId);
+
+        if (current == null && items.size() >= maxItems) {
+            return false;
+        }
+        items.put(productId, (int) Math.min((long) (current == null ? 0 : current) + quantity, maxQuantity));
+        changed();
+        return true;
+    }
+
+    /**
+     * Set the quantity of a product, zero removes it.
+     *
+     * @return false if the product is not in the cart and the cart already has the maximum number of products.
+     */
+    boolean set(long productId, int quantity, int maxQuantity, int maxItems) {
+        if (quantity <= 0) {
+            remove(productId);
+            return true;
+        }
+        if (!items.containsKey(productId) && items.size() >= maxItems) {
+            return false;
+        }
+        items.put(productId, Math.min(quantity, maxQuantity));
+        changed();
+        return true;
+    }
+
+    void remove(long productId) {
+        if (items.remove(productId) != null) {
+            changed();
+        }
+    }
+
+    void clear() {
+        if (!items.isEmpty()) {
+            items.clear();
+            changed();
+        }
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    boolean isIdleSince(long millis) {
+        return lastAccessMillis < millis;
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    boolean isDirty() {
+        return version.get() != persistedVersion;
+    }
+
+    /**
+     * Mark the state read at the given version as persisted.
+     * The version must be read before the items, so that a concurrent change keeps the cart dirty.
+     */
+    void persisted(long persisted) {
+        if (persisted > persistedVersion) {
+            persistedVersion = persisted;
+        }
+    }
+
+    /**
+     * Must be called after the items are changed.
+     */
+    private void changed() {
+        version.incrementAndGet();
+    }
+}
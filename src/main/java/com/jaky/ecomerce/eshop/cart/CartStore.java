@@ -0,0 +1,183 @@
+package com.jaky.ecomerce.eshop.cart;
+
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.repository.CartItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Active carts by user id.
+ * A cart is loaded from the database on first use and changed in memory only. Changed carts are written
+ * in batches by {@link #flush()}, carts not used for the configured time to live are then evicted.
+ * Changes and eviction of a cart are serialized by the entry lock of the map, other carts are not blocked.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 8:45 PM
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartStore {
+    private final CartItemRepository cartItemRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Map<Long, Cart> carts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cart of the user.
+     *
+     * @param userId user id.
+     * @return quantity by product id.
+     */
+    public Map<Long, Integer> getItems(long userId) {
+        Cart cart = getCart(userId);
+        cart.touch();
+        return cart.getItems();
+    }
+
+    /**
+     * Add to the quantity of a product, up to the maximum quantity.
+     *
+     * @param userId    user id.
+     * @param productId product id.
+     * @param quantity  quantity to add.
+     * @return false if the cart already has the maximum number of products.
+     */
+    public boolean add(long userId, long productId, int quantity) {
+        ApplicationProperties.Cart settings = applicationProperties.getCart();
+        return update(userId, cart -> cart.add(productId, quantity, settings.getMaxQuantity(), settings.getMaxItems()));
+    }
+
+    /**
+     * Set the quantity of a product, up to the maximum quantity. Zero removes the product.
+     *
+     * @param userId    user id.
+     * @param productId product id.
+     * @param quantity  new quantity.
+     * @return false if the cart already has the maximum number of products.
+     */
+    public boolean set(long userId, long productId, int quantity) {
+        ApplicationProperties.Cart settings = applicationProperties.getCart();
+        return update(userId, cart -> cart.set(productId, quantity, settings.getMaxQuantity(), settings.getMaxItems()));
+    }
+
+    /**
+     * Remove a product from the cart.
+     *
+     * @param userId    user id.
+     * @param productId product id.
+     */
+    public void remove(long userId, long productId) {
+        update(userId, cart -> {
+            cart.remove(productId);
+            return true;
+        });
+    }
+
+    /**
+     * Remove all products from the cart.
+     *
+     * @param userId user id.
+     */
+    public void clear(long userId) {
+        update(userId, cart -> {
+            cart.clear();
+            return true;
+        });
+    }
+
+    /**
+     * Write changed carts to the database, then evict carts which were not used for the time to live.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${application.cart.flush-interval}")
+    public void flush() {
+        ApplicationProperties.Cart settings = applicationProperties.getCart();
+        Map<Long, Map<Long, Integer>> batch = new LinkedHashMap<>();
+        Map<Long, Long> versions = new LinkedHashMap<>();
+
+        for (Map.Entry<Long, Cart> entry : carts.entrySet()) {
+            Cart cart = entry.getValue();
+
+            if (!cart.isDirty()) {
+                continue;
+            }
+            versions.put(entry.getKey(), cart.getVersion());
+            batch.put(entry.getKey(), Map.copyOf(cart.getItems()));
+
+            if (batch.size() >= settings.getFlushBatchSize()) {
+                persist(batch, versions);
+            }
+        }
+        if (!batch.isEmpty()) {
+            persist(batch, versions);
+        }
+        long idleSince = System.currentTimeMillis() - settings.getTtl().toMillis();
+
+        for (Long userId : carts.keySet()) {
+            carts.computeIfPresent(userId, (id, cart) -> !cart.isDirty() && cart.isIdleSince(idleSince) ? null : cart);
+        }
+    }
+
+    public int size() {
+        return carts.size();
+    }
+
+    private void persist(Map<Long, Map<Long, Integer>> batch, Map<Long, Long> versions) {
+        try {
+            cartItemRepository.replaceItems(batch);
+            versions.forEach((userId, version) -> {
+                Cart cart = carts.get(userId);
+
+                if (cart != null) {
+                    cart.persisted(version);
+                }
+            });
+        } catch (RuntimeException exception) {
+            log.warn("Failed to persist {} carts, retrying on next flush", batch.size(), exception);
+        }
+        batch.clear();
+        versions.clear();
+    }
+
+    /**
+     * Apply a change while holding the entry of the cart, so it cannot be evicted concurrently.
+     * A missing cart is loaded outside the entry lock.
+     */
+    private boolean update(long userId, Predicate<Cart> change) {
+        boolean[] result = new boolean[1];
+
+        while (true) {
+            Cart cart = carts.computeIfPresent(userId, (id, current) -> {
+                current.touch();
+                result[0] = change.test(current);
+                return current;
+            });
+
+            if (cart != null) {
+                return result[0];
+            }
+            getCart(userId);
+        }
+    }
+
+    private Cart getCart(long userId) {
+        Cart cart = carts.get(userId);
+
+        if (cart != null) {
+            return cart;
+        }
+        Cart loaded = new Cart(cartItemRepository.findItems(userId));
+        cart = carts.putIfAbsent(userId, loaded);
+        return cart == null ? loaded : cart;
+    }
+}
@@ -0,0 +1,305 @@
+package com.jaky.ecomerce.eshop.catalog;
+
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import com.jaky.ecomerce.eshop.dto.ProductFilterDto;
+import com.jaky.ecomerce.eshop.dto.ProductPageDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of all products, sorted by id, with facet counts over the whole catalog and the
+ * {@link SearchIndex} of the same products, so a search never sees ids of another version.
+ * Changes never modify a snapshot, they return a copy sharing the unchanged arrays.
+ * A change copies the id and product arrays, the facet counts and the word map of the index, so it costs
+ * O(catalog). That suits single product edits, a snapshot of many products is built at once with
+ * {@link #of(Collection)}.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 3:00 PM
+ **/
+final class CatalogSnapshot {
+    /**
+     * Lower bounds of the price buckets, the last bucket has no upper bound.
+     */
+    private static final int[] PRICE_BUCKET_BOUNDS = {0, 100, 500, 1000, 5000};
+
+    private static final String[] PRICE_BUCKET_NAMES = priceBucketNames();
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(new long[0], new ProductDto[0],
+            Collections.emptyMap(), Collections.emptyMap(), new int[PRICE_BUCKET_BOUNDS.length],
+            SearchIndex.EMPTY);
+
+    /**
+     * Product ids in ascending order.
+     */
+    private final long[] ids;
+
+    /**
+     * Products at the same index as their id.
+     */
+    private final ProductDto[] products;
+
+    private final Map<String, Integer> brandCounts;
+
+    private final Map<String, Integer> categoryCounts;
+
+    private final int[] priceCounts;
+
+    /**
+     * Words of the names and descriptions of exactly the products of this snapshot.
+     */
+    private final SearchIndex searchIndex;
+
+    private CatalogSnapshot(long[] ids, ProductDto[] products, Map<String, Integer> brandCounts,
+                            Map<String, Integer> categoryCounts, int[] priceCounts, SearchIndex searchIndex) {
+        this.ids = ids;
+        this.products = products;
+        this.brandCounts = Collections.unmodifiableMap(brandCounts);
+        this.categoryCounts = Collections.unmodifiableMap(categoryCounts);
+        this.priceCounts = priceCounts;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Build a snapshot of the given products.
+     *
+     * @param products products in any order.
+     * @return new snapshot.
+     */
+    static CatalogSnapshot of(Collection<ProductDto> products) {
+        ProductDto[] sorted = products.toArray(new ProductDto[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(ProductDto::getId));
+
+        long[] ids = new long[sorted.length];
+        Map<String, Integer> brandCounts = new HashMap<>();
+        Map<String, Integer> categoryCounts = new HashMap<>();
+        int[] priceCounts = new int[PRICE_BUCKET_BOUNDS.length];
+
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i].getId();
+            count(sorted[i], brandCounts, categoryCounts, priceCounts, 1);
+        }
+        return new CatalogSnapshot(ids, sorted, brandCounts, categoryCounts, priceCounts,
+                SearchIndex.of(Arrays.asList(sorted)));
+    }
+
+    /**
+     * Returns the product with the given id.
+     *
+     * @param id product id.
+     * @return product or null if there is no such product.
+     */
+    ProductDto get(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? products[index] : null;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the number of distinct words of the products.
+     */
+    int wordCount() {
+        return searchIndex.size();
+    }
+
+    /**
+     * Returns a snapshot with the given product added or replaced.
+     *
+     * @param product new state of the product.
+     * @return new snapshot.
+     */
+    CatalogSnapshot with(ProductDto product) {
+        int index = Arrays.binarySearch(ids, product.getId());
+        Map<String, Integer> brands = new HashMap<>(brandCounts);
+        Map<String, Integer> categories = new HashMap<>(categoryCounts);
+        int[] prices = priceCounts.clone();
+        long[] newIds;
+        ProductDto[] newProducts;
+        SearchIndex newSearchIndex = searchIndex.with(index >= 0 ? products[index] : null, product);
+
+        if (index >= 0) {
+            count(products[index], brands, categories, prices, -1);
+            newIds = ids;
+            newProducts = products.clone();
+            newProducts[index] = product;
+        } else {
+            int insertion = -index - 1;
+            newIds = new long[ids.length + 1];
+            newProducts = new ProductDto[products.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, insertion);
+            System.arraycopy(products, 0, newProducts, 0, insertion);
+            newIds[insertion] = product.getId();
+            newProducts[insertion] = product;
+            System.arraycopy(ids, insertion, newIds, insertion + 1, ids.length - insertion);
+            System.arraycopy(products, insertion, newProducts, insertion + 1, products.length - insertion);
+        }
+        count(product, brands, categories, prices, 1);
+        return new CatalogSnapshot(newIds, newProducts, brands, categories, prices, newSearchIndex);
+    }
+
+    /**
+     * Returns a snapshot without the product with the given id.
+     *
+     * @param id product id.
+     * @return new snapshot, or this one if there is no such product.
+     */
+    CatalogSnapshot without(long id) {
+        int index = Arrays.binarySearch(ids, id);
+
+        if (index < 0) {
+            return this;
+        }
+        Map<String, Integer> brands = new HashMap<>(brandCounts);
+        Map<String, Integer> categories = new HashMap<>(categoryCounts);
+        int[] prices = priceCounts.clone();
+        count(products[index], brands, categories, prices, -1);
+
+        long[] newIds = new long[ids.length - 1];
+        ProductDto[] newProducts = new ProductDto[products.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(products, 0, newProducts, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+        System.arraycopy(products, index + 1, newProducts, index, products.length - index - 1);
+        return new CatalogSnapshot(newIds, newProducts, brands, categories, prices,
+                searchIndex.without(products[index]));
+    }
+
+    /**
+     * Returns the products matching the filter, in id order, with facet counts of all matching products.
+     * Without a filter the precomputed counts of the whole catalog are used.
+     *
+     * @param filter brand, category and price filter.
+     * @param offset number of matching products to skip.
+     * @param limit  maximum number of products returned.
+     * @return page of products.
+     */
+    ProductPageDto filter(ProductFilterDto filter, int offset, int limit) {
+        if (filter == null || filter.isEmpty()) {
+            int from = Math.min(offset, products.length);
+            int to = (int) Math.min((long) from + limit, products.length);
+            return new ProductPageDto(Arrays.asList(products).subList(from, to), products.length,
+                    brandCounts, categoryCounts, priceFacet(priceCounts));
+        }
+        return collect(Arrays.asList(products), filter, offset, limit);
+    }
+
+    /**
+     * Returns the products containing all words of the query and matching the filter, in id order,
+     * with facet counts of all matching products. A query without words only applies the filter.
+     *
+     * @param query  words of the product name or description, case is ignored.
+     * @param filter brand, category and price filter, may be null.
+     * @param offset number of matching products to skip.
+     * @param limit  maximum number of products returned.
+     * @return page of products.
+     */
+    ProductPageDto search(String query, ProductFilterDto filter, int offset, int limit) {
+        long[] candidateIds = searchIndex.search(query);
+
+        if (candidateIds == null) {
+            return filter(filter, offset, limit);
+        }
+        List<ProductDto> candidates = new ArrayList<>(candidateIds.length);
+
+        for (long id : candidateIds) {
+            candidates.add(products[Arrays.binarySearch(ids, id)]);
+        }
+        return collect(candidates, filter, offset, limit);
+    }
+
+    Map<String, Integer> getBrandCounts() {
+        return brandCounts;
+    }
+
+    Map<String, Integer> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    Map<String, Integer> getPriceCounts() {
+        return priceFacet(priceCounts);
+    }
+
+    private static ProductPageDto collect(List<ProductDto> candidates, ProductFilterDto filter, int offset,
+                                          int limit) {
+        List<ProductDto> page = new ArrayList<>(Math.min(limit, 64));
+        Map<String, Integer> brands = new HashMap<>();
+        Map<String, Integer> categories = new HashMap<>();
+        int[] prices = new int[PRICE_BUCKET_BOUNDS.length];
+        int total = 0;
+
+        for (ProductDto product : candidates) {
+            if (filter != null && !matches(filter, product)) {
+                continue;
+            }
+            if (total >= offset && page.size() < limit) {
+                page.add(product);
+            }
+            total++;
+            count(product, brands, categories, prices, 1);
+        }
+        return new ProductPageDto(page, total, brands, categories, priceFacet(prices));
+    }
+
+    private static boolean matches(ProductFilterDto filter, ProductDto product) {
+        return (filter.getBrands() == null || filter.getBrands().isEmpty()
+                || filter.getBrands().contains(product.getBrand()))
+                && (filter.getCategories() == null || filter.getCategories().isEmpty()
+                || filter.getCategories().contains(product.getCategory()))
+                && (filter.getMinPrice() == null || product.getPrice() >= filter.getMinPrice())
+                && (filter.getMaxPrice() == null || product.getPrice() <= filter.getMaxPrice());
+    }
+
+    private static void count(ProductDto product, Map<String, Integer> brands, Map<String, Integer> categories,
+                              int[] prices, int delta) {
+        brands.merge(product.getBrand(), delta, CatalogSnapshot::sumOrRemove);
+        categories.merge(product.getCategory(), delta, CatalogSnapshot::sumOrRemove);
+        prices[priceBucket(product.getPrice())] += delta;
+    }
+
+    private static Integer sumOrRemove(Integer count, Integer delta) {
+        int sum = count + delta;
+        return sum > 0 ? sum : null;
+    }
+
+    private static int priceBucket(int price) {
+        int bucket = 0;
+
+        while (bucket + 1 < PRICE_BUCKET_BOUNDS.length && price >= PRICE_BUCKET_BOUNDS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static Map<String, Integer> priceFacet(int[] counts) {
+        Map<String, Integer> facet = new LinkedHashMap<>();
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                facet.put(PRICE_BUCKET_NAMES[i], counts[i]);
+            }
+        }
+        return facet;
+    }
+
+    private static String[] priceBucketNames() {
+        String[] names = new String[PRICE_BUCKET_BOUNDS.length];
+
+        for (int i = 0; i < names.length; i++) {
+            names[i] = i + 1 < names.length
+                    ? PRICE_BUCKET_BOUNDS[i] + "-" + (PRICE_BUCKET_BOUNDS[i + 1] - 1)
+                    : PRICE_BUCKET_BOUNDS[i] + "+";
+        }
+        return names;
+    }
+}
@@ -0,0 +1,157 @@
+package com.jaky.ecomerce.eshop.catalog;
+
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import com.jaky.ecomerce.eshop.dto.ProductFilterDto;
+import com.jaky.ecomerce.eshop.dto.ProductPageDto;
+import com.jaky.ecomerce.eshop.model.Product;
+import com.jaky.ecomerce.eshop.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the product table used to browse and filter products without database queries.
+ * Readers use the current immutable {@link CatalogSnapshot} without locking, writers replace it with a copy.
+ * Product changes made through this instance are applied after their commit, changes made by other
+ * instances are picked up by the periodic full reload.
+ * Name and description words are indexed inside the snapshot, so a search reads products and index
+ * of the same version.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 3:20 PM
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCatalog {
+    private final ProductRepository productRepository;
+
+    /**
+     * Serializes writers so that no change is lost between copying and publishing a snapshot.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+
+    /**
+     * Load all products from the database.
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${application.catalog.refresh-interval}",
+            fixedDelayString = "${application.catalog.refresh-interval}")
+    public void reload() {
+        writeLock.lock();
+        try {
+            List<ProductDto> products = productRepository.findAll().stream()
+                    .map(ProductDto::from)
+                    .toList();
+            CatalogSnapshot newSnapshot = CatalogSnapshot.of(products);
+            snapshot = newSnapshot;
+            log.debug("Loaded {} products and {} words into the catalog", products.size(), newSnapshot.wordCount());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Add or replace a saved product.
+     *
+     * @param product committed product.
+     */
+    public void update(Product product) {
+        ProductDto productDto = ProductDto.from(product);
+
+        writeLock.lock();
+        try {
+            snapshot = snapshot.with(productDto);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove a deleted product.
+     *
+     * @param id product id.
+     */
+    public void remove(long id) {
+        writeLock.lock();
+        try {
+            snapshot = snapshot.without(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the product with the given id.
+     *
+     * @param id product id.
+     * @return product or null if there is no such product.
+     */
+    public ProductDto get(long id) {
+        return snapshot.get(id);
+    }
+
+    /**
+     * Returns the products matching the filter with their facet counts.
+     *
+     * @param filter brand, category and price filter.
+     * @param page   page number, starting from 0.
+     * @param size   page size.
+     * @return page of products.
+     */
+    public ProductPageDto filter(ProductFilterDto filter, int page, int size) {
+        return snapshot.filter(filter, (int) Math.min((long) page * size, Integer.MAX_VALUE), size);
+    }
+
+    /**
+     * Returns the products containing all words of the query and matching the filter, with their facet counts.
+     *
+     * @param query  words of the product name or description, case is ignored.
+     * @param filter brand, category and price filter.
+     * @param page   page number, starting from 0.
+     * @param size   page size.
+     * @return page of products in id order.
+     */
+    public ProductPageDto search(String query, ProductFilterDto filter, int page, int size) {
+        return snapshot.search(query, filter, (int) Math.min((long) page * size, Integer.MAX_VALUE), size);
+    }
+
+    /**
+     * Returns the number of products of every brand.
+     *
+     * @return product count by brand.
+     */
+    public Map<String, Integer> getBrands() {
+        return snapshot.getBrandCounts();
+    }
+
+    /**
+     * Returns the number of products of every category.
+     *
+     * @return product count by category.
+     */
+    public Map<String, Integer> getCategories() {
+        return snapshot.getCategoryCounts();
+    }
+
+    /**
+     * Returns the number of products in every price range.
+     *
+     * @return product count by price range.
+     */
+    public Map<String, Integer> getPrices() {
+        return snapshot.getPriceCounts();
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+}
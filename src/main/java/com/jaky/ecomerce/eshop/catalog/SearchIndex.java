@@ -0,0 +1,234 @@
+package com.jaky.ecomerce.eshop.catalog;
+
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable inverted index of the words of product names and descriptions.
+ * Every word maps to the ascending ids of the products containing it. Changes never modify an index,
+ * they return a copy sharing the unchanged posting lists, so an index is published together with the
+ * {@link CatalogSnapshot} holding the same products.
+ * A change copies the word map and, for every word it adds or removes, the posting list of that word,
+ * which reaches the size of the catalog for common words. That suits single product edits, an index of
+ * many products is built at once with {@link #of(List)}.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/27/2023, 7:30 PM
+ **/
+final class SearchIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final long[] NO_IDS = new long[0];
+
+    static final SearchIndex EMPTY = new SearchIndex(Collections.emptyMap());
+
+    private final Map<String, long[]> postings;
+
+    private SearchIndex(Map<String, long[]> postings) {
+        this.postings = postings;
+    }
+
+    /**
+     * Build an index of the given products.
+     *
+     * @param products products in ascending id order.
+     * @return new index.
+     */
+    static SearchIndex of(List<ProductDto> products) {
+        Map<String, PostingBuilder> builders = new HashMap<>();
+
+        for (ProductDto product : products) {
+            for (String word : words(product)) {
+                builders.computeIfAbsent(word, w -> new PostingBuilder()).add(product.getId());
+            }
+        }
+        Map<String, long[]> postings = new HashMap<>(Math.max(16, builders.size() * 4 / 3 + 1));
+        builders.forEach((word, builder) -> postings.put(word, builder.toArray()));
+        return new SearchIndex(postings);
+    }
+
+    /**
+     * Returns an index with the new state of a product.
+     *
+     * @param previous previous state of the product, null if it is new.
+     * @param product  new state of the product.
+     * @return new index.
+     */
+    SearchIndex with(ProductDto previous, ProductDto product) {
+        Set<String> previousWords = previous == null ? Collections.emptySet() : words(previous);
+        Set<String> words = words(product);
+        Map<String, long[]> newPostings = new HashMap<>(postings);
+        long id = product.getId();
+
+        for (String word : previousWords) {
+            if (!words.contains(word)) {
+                newPostings.computeIfPresent(word, (w, ids) -> without(ids, id));
+            }
+        }
+        for (String word : words) {
+            if (!previousWords.contains(word)) {
+                newPostings.compute(word, (w, ids) -> with(ids == null ? NO_IDS : ids, id));
+            }
+        }
+        return new SearchIndex(newPostings);
+    }
+
+    /**
+     * Returns an index without a product.
+     *
+     * @param previous last state of the product.
+     * @return new index.
+     */
+    SearchIndex without(ProductDto previous) {
+        Map<String, long[]> newPostings = new HashMap<>(postings);
+        long id = previous.getId();
+
+        for (String word : words(previous)) {
+            newPostings.computeIfPresent(word, (w, ids) -> without(ids, id));
+        }
+        return new SearchIndex(newPostings);
+    }
+
+    /**
+     * Returns the ids of the products containing all words of the query.
+     *
+     * @param query words separated by spaces or punctuation, case is ignored.
+     * @return ascending product ids, or null if the query has no words.
+     */
+    long[] search(String query) {
+        Set<String> words = split(query);
+
+        if (words.isEmpty()) {
+            return null;
+        }
+        long[][] lists = new long[words.size()][];
+        int i = 0;
+
+        for (String word : words) {
+            long[] ids = postings.get(word);
+
+            if (ids == null) {
+                return NO_IDS;
+            }
+            lists[i++] = ids;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(ids -> ids.length));
+        return intersect(lists);
+    }
+
+    int size() {
+        return postings.size();
+    }
+
+    /**
+     * Intersect posting lists, shortest first. Every id of the shortest list is looked up
+     * by binary search in the others, starting after the position of the previous match.
+     */
+    private static long[] intersect(long[][] lists) {
+        long[] result = lists[0];
+
+        for (int l = 1; l < lists.length && result.length > 0; l++) {
+            long[] other = lists[l];
+            long[] matches = new long[result.length];
+            int count = 0;
+            int from = 0;
+
+            for (long id : result) {
+                int index = Arrays.binarySearch(other, from, other.length, id);
+
+                if (index >= 0) {
+                    matches[count++] = id;
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+                if (from == other.length) {
+                    break;
+                }
+            }
+            result = count == matches.length ? matches : Arrays.copyOf(matches, count);
+        }
+        return result;
+    }
+
+    private static long[] with(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+
+        if (index >= 0) {
+            return ids;
+        }
+        int insertion = -index - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertion);
+        result[insertion] = id;
+        System.arraycopy(ids, insertion, result, insertion + 1, ids.length - insertion);
+        return result;
+    }
+
+    /**
+     * Returns the list without the id, or null to remove the word once no product contains it.
+     */
+    private static long[] without(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+
+        if (index < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+    private static Set<String> words(ProductDto product) {
+        Set<String> words = split(product.getName());
+        words.addAll(split(product.getDescription()));
+        return words;
+    }
+
+    private static Set<String> split(String text) {
+        Set<String> words = new HashSet<>();
+
+        if (text == null) {
+            return words;
+        }
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Growable list of ids used while building an index.
+     */
+    private static final class PostingBuilder {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toArray() {
+            return size == ids.length ? ids : Arrays.copyOf(ids, size);
+        }
+    }
+}
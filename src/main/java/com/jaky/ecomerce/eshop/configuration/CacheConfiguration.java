@@ -0,0 +1,42 @@
+package com.jaky.ecomerce.eshop.configuration;
+
+import com.jaky.ecomerce.eshop.cache.TtlCache;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/04/2023, 7:55 PM
+ **/
+@Configuration
+public class CacheConfiguration {
+    /**
+     * Authenticated users by email, in front of the database lookups of every authenticated request.
+     *
+     * @param applicationProperties application settings.
+     * @return user cache.
+     */
+    @Bean
+    public TtlCache<String, UserPrincipal> userCache(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Cache settings = applicationProperties.getUserCache();
+        return new TtlCache<>(settings.getMaxSize(), settings.getTtl().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Verified JWT claims by token hash, so a reused bearer token is not verified again.
+     * An entry never outlives the expiration of its token.
+     *
+     * @param applicationProperties application settings.
+     * @return token cache.
+     */
+    @Bean
+    public TtlCache<String, Claims> tokenCache(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Cache settings = applicationProperties.getTokenCache();
+        return new TtlCache<>(settings.getMaxSize(), settings.getTtl().toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
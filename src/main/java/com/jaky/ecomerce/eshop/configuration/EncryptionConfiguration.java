@@ -1,18 +1,48 @@
 package com.jaky.ecomerce.eshop.configuration;
 
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.security.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author : Jaiky Nguyen
  * @since : 10/24/2023, 8:33 PM
  **/
 @Configuration
 public class EncryptionConfiguration {
-    @Bean
-    public PasswordEncoder getPasswordEncoder() {
-        return new BCryptPasswordEncoder(8);
+    /**
+     * Identifier of the algorithm for new password hashes.
+     */
+    private static final String ENCODING_ID = "bcrypt";
+
+    /**
+     * New hashes are prefixed with the algorithm id. Hashes without prefix, stored before,
+     * are verified with BCrypt and encoded again on the next successful login,
+     * as are hashes with a lower BCrypt cost than configured.
+     *
+     * @param applicationProperties application settings.
+     * @param meterRegistry         registry of the hashing pool metrics.
+     * @return password encoder running on the dedicated hashing pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public OffloadingPasswordEncoder getPasswordEncoder(ApplicationProperties applicationProperties,
+                                                        MeterRegistry meterRegistry) {
+        ApplicationProperties.PasswordHashing settings = applicationProperties.getPasswordHashing();
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(ENCODING_ID, new BCryptPasswordEncoder(settings.getStrength()));
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(ENCODING_ID, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(settings.getStrength()));
+
+        return new OffloadingPasswordEncoder(passwordEncoder, settings.getPoolSize(), settings.getQueueCapacity(),
+                settings.getTimeout(), settings.getBulkPoolSize(), meterRegistry);
     }
 }
@@ -0,0 +1,105 @@
+package com.jaky.ecomerce.eshop.configuration;
+
+import com.jaky.ecomerce.eshop.cache.TtlCache;
+import com.jaky.ecomerce.eshop.metrics.QueryCountInspector;
+import com.jaky.ecomerce.eshop.security.LoginThrottle;
+import com.jaky.ecomerce.eshop.security.RateLimitFilter;
+import com.jaky.ecomerce.eshop.security.RouteLimiter;
+import com.jaky.ecomerce.eshop.security.TokenRevocationList;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/16/2023, 7:30 PM
+ **/
+@Configuration
+public class MetricsConfiguration {
+    /**
+     * Count the statements of every request, see {@link com.jaky.ecomerce.eshop.metrics.QueryCountFilter}.
+     *
+     * @return customizer registering the statement inspector.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    /**
+     * Size, hits, misses and evictions of the in-process caches.
+     *
+     * @param userCache  authenticated users by email.
+     * @param tokenCache verified JWT claims by token hash.
+     * @return binder of the cache metrics.
+     */
+    @Bean
+    public MeterBinder cacheMetrics(TtlCache<String, UserPrincipal> userCache, TtlCache<String, Claims> tokenCache) {
+        return registry -> {
+            bindCache(registry, "user", userCache);
+            bindCache(registry, "token", tokenCache);
+        };
+    }
+
+    /**
+     * Rejected login attempts and requests, and the use of the token revocation filter.
+     *
+     * @param loginThrottle       limits of login attempts.
+     * @param rateLimitFilter     limits of route groups.
+     * @param tokenRevocationList tokens revoked before their expiration.
+     * @return binder of the security metrics.
+     */
+    @Bean
+    public MeterBinder securityMetrics(LoginThrottle loginThrottle, RateLimitFilter rateLimitFilter,
+                                      TokenRevocationList tokenRevocationList) {
+        return registry -> {
+            FunctionCounter.builder("eshop.login.throttle.rejected", loginThrottle, LoginThrottle::getRejectedByAddress)
+                    .tag("limit", "address")
+                    .register(registry);
+            FunctionCounter.builder("eshop.login.throttle.rejected", loginThrottle, LoginThrottle::getRejectedByEmail)
+                    .tag("limit", "email")
+                    .register(registry);
+
+            for (RouteLimiter route : rateLimitFilter.getRoutes()) {
+                FunctionCounter.builder("eshop.rate.limit.rejected", route, RouteLimiter::getRejectedByRate)
+                        .tags("route", route.getName(), "limit", "rate")
+                        .register(registry);
+                FunctionCounter.builder("eshop.rate.limit.rejected", route, RouteLimiter::getRejectedByConcurrency)
+                        .tags("route", route.getName(), "limit", "concurrency")
+                        .register(registry);
+                Gauge.builder("eshop.rate.limit.active", route, RouteLimiter::getActiveRequests)
+                        .tag("route", route.getName())
+                        .register(registry);
+            }
+            FunctionCounter.builder("eshop.revocation.lookups", tokenRevocationList,
+                            TokenRevocationList::getDatabaseLookups)
+                    .description("Revocation checks not answered by the Bloom filter alone")
+                    .register(registry);
+            FunctionCounter.builder("eshop.revocation.false.positives", tokenRevocationList,
+                            TokenRevocationList::getFalsePositives)
+                    .register(registry);
+        };
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, TtlCache<?, ?> cache) {
+        Gauge.builder("eshop.cache.size", cache, TtlCache::size)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("eshop.cache.gets", cache, TtlCache::getHitCount)
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("eshop.cache.gets", cache, TtlCache::getMissCount)
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("eshop.cache.evictions", cache, TtlCache::getEvictionCount)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
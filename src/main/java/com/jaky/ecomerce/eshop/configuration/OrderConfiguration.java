@@ -0,0 +1,27 @@
+package com.jaky.ecomerce.eshop.configuration;
+
+import com.jaky.ecomerce.eshop.order.StockReservationBatcher;
+import com.jaky.ecomerce.eshop.order.StockStore;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 4:40 PM
+ **/
+@Configuration
+public class OrderConfiguration {
+    /**
+     * Stock reservations of orders, combined per product.
+     *
+     * @param stockStore            product stock in the database.
+     * @param applicationProperties application settings.
+     * @return reservation batcher.
+     */
+    @Bean
+    public StockReservationBatcher stockReservationBatcher(StockStore stockStore,
+                                                           ApplicationProperties applicationProperties) {
+        return new StockReservationBatcher(stockStore, applicationProperties.getOrder().getReservationBatchSize());
+    }
+}
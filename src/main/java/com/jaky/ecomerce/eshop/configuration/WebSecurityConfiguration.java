@@ -2,7 +2,9 @@ package com.jaky.ecomerce.eshop.configuration;
 
 import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
 import com.jaky.ecomerce.eshop.security.JwtFilter;
+import com.jaky.ecomerce.eshop.security.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -16,6 +18,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -36,9 +39,11 @@ import static org.springframework.security.config.Customizer.withDefaults;
 @RequiredArgsConstructor
 public class WebSecurityConfiguration {
     private final JwtFilter jwtFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final ApplicationProperties applicationProperties;
 
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
     private final PasswordEncoder passwordEncoder;
 
     @Bean
@@ -68,15 +73,45 @@ public class WebSecurityConfiguration {
                                         "/static/**",
                                         "/activate/*",
                                         "/menu/**").permitAll()
-                                .requestMatchers("/api/v1/rest/login").permitAll()
+                                .requestMatchers("/api/v1/rest/login", "/api/v1/rest/refresh").permitAll()
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/actuator/prometheus").hasAuthority("ADMIN")
                                 .anyRequest().authenticated()
                 )
 
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtFilter.class)
         ;
         return http.build();
     }
 
+    /**
+     * {@link JwtFilter} is a bean, so Spring Boot would also register it as a plain servlet filter
+     * and every request would verify the token a second time outside the security chain.
+     * The filter must only run inside {@link #securityFilterChain(HttpSecurity)}.
+     *
+     * @return disabled servlet registration of the JWT filter.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtFilter> jwtFilterRegistration() {
+        FilterRegistrationBean<JwtFilter> registration = new FilterRegistrationBean<>(jwtFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * {@link RateLimitFilter} must also only run inside {@link #securityFilterChain(HttpSecurity)},
+     * after the user is authenticated, otherwise every request would take two tokens.
+     *
+     * @return disabled servlet registration of the rate limit filter.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -100,6 +135,7 @@ public class WebSecurityConfiguration {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
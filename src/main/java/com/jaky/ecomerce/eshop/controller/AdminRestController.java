@@ -0,0 +1,238 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.dto.KeyRotationRequestDto;
+import com.jaky.ecomerce.eshop.dto.UserImportResultDto;
+import com.jaky.ecomerce.eshop.dto.UserSummaryDto;
+import com.jaky.ecomerce.eshop.model.Product;
+import com.jaky.ecomerce.eshop.security.JwtProvider;
+import com.jaky.ecomerce.eshop.service.ProductService;
+import com.jaky.ecomerce.eshop.service.UserImportService;
+import com.jaky.ecomerce.eshop.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/12/2023, 4:05 PM
+ **/
+@RestController
+@RequestMapping("/api/v1/rest/admin")
+@PreAuthorize("hasAuthority('ADMIN')")
+@RequiredArgsConstructor
+public class AdminRestController {
+    /**
+     * Maximum number of users returned by one page.
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Response header with the total number of users.
+     */
+    private static final String TOTAL_COUNT_HEADER = "X-total-count";
+
+    /**
+     * Media type of CSV uploads.
+     */
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final UserService userService;
+
+    private final UserImportService userImportService;
+
+    private final ProductService productService;
+
+    /**
+     * Signs and verifies tokens with the keys rotated here.
+     */
+    private final JwtProvider jwtProvider;
+
+    /**
+     * Returns page of registered users.
+     * URL request {"/user/all"}, method GET.
+     *
+     * @param page page number, starting from 0.
+     * @param size page size.
+     * @return ResponseEntity with list of users and the total number of users in "X-total-count" header.
+     */
+    @GetMapping("/user/all")
+    public ResponseEntity<List<UserSummaryDto>> getAllUsers(@RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        Page<UserSummaryDto> users = userService.findAll(
+                PageRequest.of(Math.max(page, 0), pageSize(size), Sort.by("id")));
+
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(users.getTotalElements()))
+                .body(users.getContent());
+    }
+
+    /**
+     * Returns registered users following the given one, for paging through large tables.
+     * URL request {"/user/keyset"}, method GET.
+     *
+     * @param after id of the last user of the previous page.
+     * @param size  page size.
+     * @return ResponseEntity with list of users.
+     */
+    @GetMapping("/user/keyset")
+    public ResponseEntity<List<UserSummaryDto>> getUsersAfter(@RequestParam(defaultValue = "0") long after,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        return new ResponseEntity<>(userService.findAllAfter(after, pageSize(size)), HttpStatus.OK);
+    }
+
+    /**
+     * Streams all registered users as JSON array.
+     * URL request {"/user/export"}, method GET.
+     *
+     * @return ResponseEntity with streamed list of users.
+     */
+    @GetMapping("/user/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = userService::exportAll;
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.json")
+                .body(body);
+    }
+
+    /**
+     * Imports users from a streamed upload, as newline delimited JSON or CSV.
+     * URL request {"/user/import"}, method POST.
+     *
+     * @param contentType "application/x-ndjson" or "text/csv".
+     * @param body        uploaded users.
+     * @return ResponseEntity with number of imported and skipped users and the import rate.
+     * @throws IOException if reading the upload fails.
+     */
+    @PostMapping(value = "/user/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<UserImportResultDto> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                           InputStream body) throws IOException {
+        UserImportResultDto result = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? userImportService.importCsv(body)
+                : userImportService.importJson(body);
+
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Adds a new product.
+     * URL request {"/product"}, method POST.
+     *
+     * @param product product with name, brand, category, price and stock.
+     * @return ResponseEntity with the saved product, or 400 if a required value is missing.
+     */
+    @PostMapping("/product")
+    public ResponseEntity<Product> addProduct(@RequestBody Product product) {
+        if (!isValid(product)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        product.setId(null);
+        product.setVersion(null);
+        return new ResponseEntity<>(productService.save(product), HttpStatus.CREATED);
+    }
+
+    /**
+     * Replaces the product with the given id.
+     * URL request {"/product/{id}"}, method PUT.
+     *
+     * @param id      product id.
+     * @param product product with name, brand, category, price and stock, and the version it was read with.
+     * @return ResponseEntity with the saved product, 400 if a required value is missing, 404 if there is
+     * no such product or 409 if the product was changed since it was read.
+     */
+    @PutMapping("/product/{id}")
+    public ResponseEntity<Product> updateProduct(@PathVariable long id, @RequestBody Product product) {
+        if (!isValid(product)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Product savedProduct = productService.update(id, product);
+
+        if (savedProduct == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(savedProduct, HttpStatus.OK);
+    }
+
+    /**
+     * Deletes the product with the given id.
+     * URL request {"/product/{id}"}, method DELETE.
+     *
+     * @param id product id.
+     * @return ResponseEntity with 204, or 404 if there is no such product.
+     */
+    @DeleteMapping("/product/{id}")
+    public ResponseEntity<Void> deleteProduct(@PathVariable long id) {
+        HttpStatus status = productService.delete(id) ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND;
+        return new ResponseEntity<>(status);
+    }
+
+    /**
+     * Signs new tokens with the given secret, tokens signed with the previous keys stay valid until retired.
+     * Only the instance receiving the request changes, and jwt.secret has to be changed before its next
+     * restart, with the replaced secret added to jwt.previous-secrets.
+     * URL request {"/jwt/key"}, method POST.
+     *
+     * @param request new secret.
+     * @return ResponseEntity with the id of the new key, or 400 if the secret is empty.
+     */
+    @PostMapping("/jwt/key")
+    public ResponseEntity<Map<String, String>> rotateJwtKey(@RequestBody KeyRotationRequestDto request) {
+        if (!StringUtils.hasText(request.getSecret())) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(Map.of("keyId", jwtProvider.rotateKey(request.getSecret())), HttpStatus.OK);
+    }
+
+    /**
+     * Stops accepting tokens signed with the given key.
+     * URL request {"/jwt/key/{keyId}"}, method DELETE.
+     *
+     * @param keyId id of the key, as in the kid header of the tokens.
+     * @return ResponseEntity with 204, 404 if there is no such key or 409 if the key signs new tokens.
+     */
+    @DeleteMapping("/jwt/key/{keyId}")
+    public ResponseEntity<Void> retireJwtKey(@PathVariable String keyId) {
+        try {
+            HttpStatus status = jwtProvider.retireKey(keyId) ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND;
+            return new ResponseEntity<>(status);
+        } catch (IllegalArgumentException exception) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    private static boolean isValid(Product product) {
+        return StringUtils.hasText(product.getName())
+                && StringUtils.hasText(product.getBrand())
+                && StringUtils.hasText(product.getCategory())
+                && product.getPrice() != null && product.getPrice() >= 0
+                && product.getStock() != null && product.getStock() >= 0;
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+}
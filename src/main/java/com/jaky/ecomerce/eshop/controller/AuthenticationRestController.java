@@ -2,17 +2,27 @@ package com.jaky.ecomerce.eshop.controller;
 
 import com.jaky.ecomerce.eshop.dto.AuthenticationRequestDTO;
 import com.jaky.ecomerce.eshop.dto.PasswordResetDto;
+import com.jaky.ecomerce.eshop.dto.RefreshTokenRequestDto;
+import com.jaky.ecomerce.eshop.dto.TokenRefreshDto;
 import com.jaky.ecomerce.eshop.model.User;
+import com.jaky.ecomerce.eshop.security.JwtAuthenticationException;
 import com.jaky.ecomerce.eshop.security.JwtProvider;
+import com.jaky.ecomerce.eshop.security.LoginThrottle;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import com.jaky.ecomerce.eshop.service.RefreshTokenService;
 import com.jaky.ecomerce.eshop.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
@@ -36,33 +46,61 @@ public class AuthenticationRestController {
 
     private final JwtProvider jwtProvider;
 
+    private final RefreshTokenService refreshTokenService;
+
+    private final LoginThrottle loginThrottle;
+
     /**
      * Authenticate user in system.
      * URL request {"/login"}, method POST.
      *
-     * @param request data transfer object with user email and password.
+     * Attempts over the limits of {@link LoginThrottle} are rejected with 429 before the password is checked.
+     *
+     * @param request     data transfer object with user email and password.
+     * @param httpRequest HTTP request with the client address.
      * @return ResponseEntity with HTTP response: status code, headers, and body.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> authenticate(@RequestBody AuthenticationRequestDTO request) {
+    public ResponseEntity<?> authenticate(@RequestBody AuthenticationRequestDTO request,
+                                          HttpServletRequest httpRequest) {
+        if (!loginThrottle.tryAcquire(request.getEmail(), httpRequest.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginThrottle.getRetryAfterSeconds()))
+                    .body("Too many login attempts, please try again later");
+        }
         try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 
-            User user = userService.findByEmail(request.getEmail());
-            String userRole = user.getRoles().iterator().next().name();
-            String token = jwtProvider.createToken(request.getEmail(), userRole);
-            Map<Object, Object> response = new HashMap<>();
-            response.put("email", request.getEmail());
-            response.put("token", token);
-            response.put("userRole", userRole);
+            UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
+            loginThrottle.loginSucceeded(request.getEmail());
 
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            return new ResponseEntity<>(tokenResponse(user, refreshTokenService.create(user)), HttpStatus.OK);
 
         } catch (AuthenticationException e) {
+            loginThrottle.loginFailed(request.getEmail());
             return new ResponseEntity<>("Incorrect password or email", HttpStatus.FORBIDDEN);
         }
     }
 
+    /**
+     * Exchange a refresh token for a new access token and a new refresh token.
+     * URL request {"/refresh"}, method POST.
+     *
+     * @param request data transfer object with the refresh token.
+     * @return ResponseEntity with HTTP response: status code, headers, and body.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequestDto request) {
+        try {
+            TokenRefreshDto refresh = refreshTokenService.rotate(request.getRefreshToken());
+
+            return new ResponseEntity<>(tokenResponse(refresh.getUser(), refresh.getRefreshToken()), HttpStatus.OK);
+        } catch (JwtAuthenticationException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNAUTHORIZED);
+        }
+    }
+
     /**
      * Send password reset code to user email.
      * URL request {"/forgot"}, method POST.
@@ -126,4 +164,45 @@ public class AuthenticationRestController {
         userService.passwordReset(passwordReset);
         return new ResponseEntity<>("Password successfully changed!", HttpStatus.OK);
     }
+
+    /**
+     * Log out by revoking the token of the request and the refresh token family, if given.
+     * URL request {"/logout"}, method POST.
+     *
+     * @param request HTTP request with the token.
+     * @param user    authenticated user.
+     * @param all     true to revoke all tokens of the user, on every device.
+     * @param body    data transfer object with the refresh token, optional.
+     * @return ResponseEntity with HTTP response: status code, headers, and body.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(HttpServletRequest request, @AuthenticationPrincipal UserPrincipal user,
+                                    @RequestParam(defaultValue = "false") boolean all,
+                                    @RequestBody(required = false) RefreshTokenRequestDto body) {
+        String token = jwtProvider.resolveToken(request);
+
+        if (token == null || user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        // Tokens issued without an id can only be revoked together with the other tokens of the user.
+        if (all || !jwtProvider.revokeToken(token)) {
+            userService.revokeTokens(user.getEmail());
+        }
+        if (all) {
+            refreshTokenService.revokeAll(user.getId());
+        } else if (body != null && StringUtils.hasText(body.getRefreshToken())) {
+            refreshTokenService.revoke(body.getRefreshToken());
+        }
+        SecurityContextHolder.clearContext();
+        return new ResponseEntity<>("Successfully logged out", HttpStatus.OK);
+    }
+
+    private Map<Object, Object> tokenResponse(UserPrincipal user, String refreshToken) {
+        Map<Object, Object> response = new HashMap<>();
+        response.put("email", user.getEmail());
+        response.put("token", jwtProvider.createToken(user));
+        response.put("refreshToken", refreshToken);
+        response.put("userRole", user.getPrimaryRole().name());
+        return response;
+    }
 }
@@ -0,0 +1,133 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.dto.CartDto;
+import com.jaky.ecomerce.eshop.dto.CartUpdateDto;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import com.jaky.ecomerce.eshop.service.CartService;
+import com.jaky.ecomerce.eshop.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Cart of the authenticated user. The user id is taken from the principal set by the JWT filter.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 9:40 PM
+ **/
+@RestController
+@RequestMapping("/api/v1/rest/cart")
+@RequiredArgsConstructor
+public class CartRestController {
+    private final CartService cartService;
+
+    private final ProductService productService;
+
+    /**
+     * Returns the cart of the user.
+     * URL request {"/cart"}, method GET.
+     *
+     * @param user authenticated user.
+     * @return ResponseEntity with the cart, or 401 if the user is not authenticated.
+     */
+    @GetMapping
+    public ResponseEntity<CartDto> getCart(@AuthenticationPrincipal UserPrincipal user) {
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        return new ResponseEntity<>(cartService.getCart(user.getId()), HttpStatus.OK);
+    }
+
+    /**
+     * Adds a product to the cart, one piece if no quantity is given.
+     * URL request {"/cart"}, method POST.
+     *
+     * @param user    authenticated user.
+     * @param request product id and quantity to add.
+     * @return ResponseEntity with the cart, 400 if the cart is full, the product id is missing or the quantity
+     * is not positive, 401 if the user is not authenticated or 404 if there is no such product.
+     */
+    @PostMapping
+    public ResponseEntity<CartDto> addItem(@AuthenticationPrincipal UserPrincipal user,
+                                           @RequestBody CartUpdateDto request) {
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        int quantity = request.getQuantity() == null ? 1 : request.getQuantity();
+
+        if (request.getProductId() == null || quantity <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (!productExists(request)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return cartResponse(cartService.addItem(user.getId(), request.getProductId(), quantity));
+    }
+
+    /**
+     * Sets the quantity of a product in the cart, zero removes the product.
+     * URL request {"/cart"}, method PUT.
+     *
+     * @param user    authenticated user.
+     * @param request product id and new quantity.
+     * @return ResponseEntity with the cart, 400 if the cart is full, the product id or quantity is missing or
+     * the quantity is negative, 401 if the user is not authenticated or 404 if there is no such product.
+     */
+    @PutMapping
+    public ResponseEntity<CartDto> setItem(@AuthenticationPrincipal UserPrincipal user,
+                                           @RequestBody CartUpdateDto request) {
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        if (request.getProductId() == null || request.getQuantity() == null || request.getQuantity() < 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (request.getQuantity() > 0 && !productExists(request)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return cartResponse(cartService.setItem(user.getId(), request.getProductId(), request.getQuantity()));
+    }
+
+    /**
+     * Removes a product from the cart.
+     * URL request {"/cart/{productId}"}, method DELETE.
+     *
+     * @param user      authenticated user.
+     * @param productId product id.
+     * @return ResponseEntity with the cart, or 401 if the user is not authenticated.
+     */
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<CartDto> removeItem(@AuthenticationPrincipal UserPrincipal user,
+                                              @PathVariable long productId) {
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        return new ResponseEntity<>(cartService.removeItem(user.getId(), productId), HttpStatus.OK);
+    }
+
+    /**
+     * Removes all products from the cart.
+     * URL request {"/cart"}, method DELETE.
+     *
+     * @param user authenticated user.
+     * @return ResponseEntity with 204, or 401 if the user is not authenticated.
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> clear(@AuthenticationPrincipal UserPrincipal user) {
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        cartService.clear(user.getId());
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    private boolean productExists(CartUpdateDto request) {
+        return productService.findById(request.getProductId()) != null;
+    }
+
+    private static ResponseEntity<CartDto> cartResponse(CartDto cart) {
+        return cart == null ? new ResponseEntity<>(HttpStatus.BAD_REQUEST) : new ResponseEntity<>(cart, HttpStatus.OK);
+    }
+}
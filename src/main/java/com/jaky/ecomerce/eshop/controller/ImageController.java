@@ -0,0 +1,175 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.service.ImageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Serves product images and their thumbnails.
+ * The file is sent by the connector with sendfile when Tomcat supports it, so its bytes never pass
+ * through the heap. Otherwise it is copied with {@link FileChannel#transferTo} into the response stream,
+ * which reads it through a small buffer chunk by chunk, so the image is never held in the heap as a whole.
+ * A single byte range and conditional requests with ETag or Last-Modified are supported.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/05/2023, 8:30 PM
+ **/
+@Controller
+@RequiredArgsConstructor
+public class ImageController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageService imageService;
+
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Returns a product image.
+     * URL request {"/img/{name}"}, method GET.
+     *
+     * @param name     image file name.
+     * @param width    optional width of the thumbnail. The original image is sent while the thumbnail
+     *                 is generated.
+     * @param request  HTTP request with optional Range and conditional headers.
+     * @param response HTTP response with the image, 206 for a range, 304 if not modified or 404 if there
+     *                 is no such image.
+     * @throws IOException if sending the image fails.
+     */
+    @GetMapping("/img/{name:[\\w.-]+}")
+    public void getImage(@PathVariable String name,
+                         @RequestParam(name = "w", required = false) Integer width,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path image = width == null ? null : imageService.getThumbnail(name, width);
+
+        if (width != null && image == null) {
+            imageService.generateThumbnails(name);
+        }
+        if (image == null) {
+            image = imageService.getImage(name);
+        }
+        if (image == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(image, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(applicationProperties.getImages().getCacheMaxAge()).cachePublic().getHeaderValue());
+
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+
+        if (range != null && isRangeApplicable(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException exception) {
+                ranges = List.of();
+            }
+            // Multiple ranges are answered with the whole image.
+            if (ranges.size() == 1) {
+                HttpRange httpRange = ranges.get(0);
+
+                try {
+                    start = httpRange.getRangeStart(length);
+                    end = httpRange.getRangeEnd(length);
+                } catch (IllegalArgumentException exception) {
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start + 1);
+
+        if (HttpMethod.HEAD.matches(request.getMethod()) || end < start) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, image.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        // The response stream is not a file channel, so the transfer copies through a buffer.
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+
+            while (position <= end) {
+                long transferred = channel.transferTo(position, end + 1 - position, target);
+
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * A range is ignored if If-Range does not match the current version of the image.
+     */
+    private static boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException exception) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.dto.ProductFilterDto;
+import com.jaky.ecomerce.eshop.dto.ProductPageDto;
+import com.jaky.ecomerce.eshop.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 4:05 PM
+ **/
+@RestController
+@RequestMapping("/api/v1/rest/menu")
+@RequiredArgsConstructor
+public class MenuRestController {
+    /**
+     * Maximum number of products returned by one page.
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductService productService;
+
+    /**
+     * Returns page of products filtered by brand, category and price.
+     * URL request {"/menu/products"}, method GET.
+     *
+     * @param filter brands, categories, minPrice and maxPrice request parameters, all optional.
+     * @param page   page number, starting from 0.
+     * @param size   page size.
+     * @return ResponseEntity with the products and the facet counts of all matching products.
+     */
+    @GetMapping("/products")
+    public ResponseEntity<ProductPageDto> getProducts(ProductFilterDto filter,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int size) {
+        ProductPageDto products = productService.findAll(filter, Math.max(page, 0), pageSize(size));
+
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    /**
+     * Returns page of products whose name or description contains all words of the query,
+     * filtered by brand, category and price.
+     * URL request {"/menu/search"}, method GET.
+     *
+     * @param q      search words.
+     * @param filter brands, categories, minPrice and maxPrice request parameters, all optional.
+     * @param page   page number, starting from 0.
+     * @param size   page size.
+     * @return ResponseEntity with the products and the facet counts of all matching products.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ProductPageDto> search(@RequestParam(defaultValue = "") String q,
+                                                 ProductFilterDto filter,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        ProductPageDto products = productService.search(q, filter, Math.max(page, 0), pageSize(size));
+
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    /**
+     * Returns the number of products by brand, category and price range.
+     * URL request {"/menu/facets"}, method GET.
+     *
+     * @return ResponseEntity with product counts.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Map<String, Integer>>> getFacets() {
+        return new ResponseEntity<>(productService.getFacets(), HttpStatus.OK);
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+}
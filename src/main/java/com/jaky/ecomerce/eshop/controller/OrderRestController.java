@@ -0,0 +1,83 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.dto.OrderDto;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import com.jaky.ecomerce.eshop.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Orders of the authenticated user.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 5:30 PM
+ **/
+@RestController
+@RequestMapping("/api/v1/rest/order")
+@RequiredArgsConstructor
+public class OrderRestController {
+    private final OrderService orderService;
+
+    /**
+     * Places an order with the products in the cart of the user.
+     * URL request {"/order"}, method POST.
+     *
+     * @param user authenticated user.
+     * @return ResponseEntity with the order, 400 if the cart is empty, 401 if the user is not authenticated
+     * or 409 if a product is out of stock.
+     */
+    @PostMapping
+    public ResponseEntity<OrderDto> placeOrder(@AuthenticationPrincipal UserPrincipal user) {
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        OrderDto order = orderService.placeOrder(user.getId());
+
+        if (order == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(order, HttpStatus.CREATED);
+    }
+
+    /**
+     * Returns the orders of the user.
+     * URL request {"/order"}, method GET.
+     *
+     * @param user authenticated user.
+     * @return ResponseEntity with list of orders, or 401 if the user is not authenticated.
+     */
+    @GetMapping
+    public ResponseEntity<List<OrderDto>> getOrders(@AuthenticationPrincipal UserPrincipal user) {
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        return new ResponseEntity<>(orderService.findAll(user.getId()), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the order of the user with the given id.
+     * URL request {"/order/{id}"}, method GET.
+     *
+     * @param user authenticated user.
+     * @param id   order id.
+     * @return ResponseEntity with the order, 401 if the user is not authenticated or 404 if the user has
+     * no such order.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderDto> getOrder(@AuthenticationPrincipal UserPrincipal user, @PathVariable long id) {
+        if (user == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        OrderDto order = orderService.findById(user.getId(), id);
+
+        if (order == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(order, HttpStatus.OK);
+    }
+}
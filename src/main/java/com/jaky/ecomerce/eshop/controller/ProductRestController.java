@@ -0,0 +1,39 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import com.jaky.ecomerce.eshop.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 4:00 PM
+ **/
+@RestController
+@RequestMapping("/api/v1/rest")
+@RequiredArgsConstructor
+public class ProductRestController {
+    private final ProductService productService;
+
+    /**
+     * Returns the product with the given id.
+     * URL request {"/product/{id}"}, method GET.
+     *
+     * @param id product id.
+     * @return ResponseEntity with the product, or 404 if there is no such product.
+     */
+    @GetMapping("/product/{id}")
+    public ResponseEntity<ProductDto> getProduct(@PathVariable long id) {
+        ProductDto product = productService.findById(id);
+
+        if (product == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(product, HttpStatus.OK);
+    }
+}
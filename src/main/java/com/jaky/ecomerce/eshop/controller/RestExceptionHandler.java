@@ -0,0 +1,59 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.order.OutOfStockException;
+import com.jaky.ecomerce.eshop.security.PasswordHashingRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Maps exceptions of the REST controllers to HTTP responses.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/08/2023, 9:20 PM
+ **/
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    /**
+     * Password hashing pool is saturated, the client should retry later.
+     *
+     * @param exception rejected hashing.
+     * @return ResponseEntity with HTTP status 503.
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<?> passwordHashingRejected(PasswordHashingRejectedException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Server is busy, please try again later");
+    }
+
+    /**
+     * A product of the order has not enough stock.
+     *
+     * @param exception failed reservation.
+     * @return ResponseEntity with HTTP status 409 and the product id.
+     */
+    @ExceptionHandler(OutOfStockException.class)
+    public ResponseEntity<?> outOfStock(OutOfStockException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("productId", exception.getProductId(), "message", exception.getMessage()));
+    }
+
+    /**
+     * The entity was changed since the client read it.
+     *
+     * @param exception failed update.
+     * @return ResponseEntity with HTTP status 409.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<?> optimisticLockingFailure(ObjectOptimisticLockingFailureException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("The data was changed by another request, please reload it");
+    }
+}
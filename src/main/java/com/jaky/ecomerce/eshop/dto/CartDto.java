@@ -0,0 +1,17 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Cart contents with the current product data.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 9:10 PM
+ **/
+@Value
+public class CartDto {
+    List<CartItemDto> items;
+    long totalPrice;
+}
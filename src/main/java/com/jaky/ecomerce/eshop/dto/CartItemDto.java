@@ -0,0 +1,13 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Value;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 9:10 PM
+ **/
+@Value
+public class CartItemDto {
+    ProductDto product;
+    int quantity;
+}
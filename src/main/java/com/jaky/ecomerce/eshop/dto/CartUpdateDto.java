@@ -0,0 +1,13 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Data;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 9:15 PM
+ **/
+@Data
+public class CartUpdateDto {
+    private Long productId;
+    private Integer quantity;
+}
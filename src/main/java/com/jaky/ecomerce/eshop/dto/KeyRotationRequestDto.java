@@ -0,0 +1,12 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Data;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/16/2023, 7:40 PM
+ **/
+@Data
+public class KeyRotationRequestDto {
+    private String secret;
+}
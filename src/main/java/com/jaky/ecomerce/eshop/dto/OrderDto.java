@@ -0,0 +1,27 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import com.jaky.ecomerce.eshop.model.Order;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 4:50 PM
+ **/
+@Value
+public class OrderDto {
+    long id;
+    long totalPrice;
+    Instant createdAt;
+    List<OrderItemDto> items;
+
+    public static OrderDto from(Order order) {
+        List<OrderItemDto> items = order.getItems().stream()
+                .map(item -> new OrderItemDto(item.getProductId(), item.getProductName(), item.getPrice(),
+                        item.getQuantity()))
+                .toList();
+        return new OrderDto(order.getId(), order.getTotalPrice(), order.getCreatedAt(), items);
+    }
+}
@@ -0,0 +1,15 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Value;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 4:50 PM
+ **/
+@Value
+public class OrderItemDto {
+    long productId;
+    String productName;
+    int price;
+    int quantity;
+}
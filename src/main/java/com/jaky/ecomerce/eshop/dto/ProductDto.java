@@ -0,0 +1,26 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import com.jaky.ecomerce.eshop.model.Product;
+import lombok.Value;
+
+/**
+ * Immutable copy of a {@link Product}, shared by all readers of the in-memory catalog.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 2:30 PM
+ **/
+@Value
+public class ProductDto {
+    long id;
+    String name;
+    String description;
+    String brand;
+    String category;
+    int price;
+    String imageFile;
+
+    public static ProductDto from(Product product) {
+        return new ProductDto(product.getId(), product.getName(), product.getDescription(), product.getBrand(),
+                product.getCategory(), product.getPrice(), product.getImageFile());
+    }
+}
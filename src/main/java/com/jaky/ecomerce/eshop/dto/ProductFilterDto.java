@@ -0,0 +1,28 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 2:35 PM
+ **/
+@Data
+public class ProductFilterDto {
+    private Set<String> brands;
+    private Set<String> categories;
+    private Integer minPrice;
+    private Integer maxPrice;
+
+    /**
+     * Returns true if no filter is set.
+     *
+     * @return true if every product matches.
+     */
+    public boolean isEmpty() {
+        return (brands == null || brands.isEmpty())
+                && (categories == null || categories.isEmpty())
+                && minPrice == null && maxPrice == null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Products of one page with facet counts of all products matching the filter.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 3:05 PM
+ **/
+@Value
+public class ProductPageDto {
+    List<ProductDto> products;
+    int total;
+    Map<String, Integer> brands;
+    Map<String, Integer> categories;
+    Map<String, Integer> prices;
+}
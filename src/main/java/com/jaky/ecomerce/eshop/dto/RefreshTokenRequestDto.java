@@ -0,0 +1,12 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Data;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/10/2023, 4:15 PM
+ **/
+@Data
+public class RefreshTokenRequestDto {
+    private String refreshToken;
+}
@@ -0,0 +1,16 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import lombok.Value;
+
+/**
+ * Result of a refresh: the current state of the user and the refresh token replacing the used one.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/10/2023, 4:15 PM
+ **/
+@Value
+public class TokenRefreshDto {
+    UserPrincipal user;
+    String refreshToken;
+}
@@ -0,0 +1,23 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import com.jaky.ecomerce.eshop.model.Role;
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Read-only projection of the user columns needed for authentication.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/16/2023, 7:45 PM
+ **/
+@Value
+public class UserCredentialsDto {
+    Long id;
+    String email;
+    String password;
+    Set<Role> roles;
+    boolean active;
+    String activationCode;
+    int tokenVersion;
+}
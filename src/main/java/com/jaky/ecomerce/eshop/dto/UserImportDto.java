@@ -0,0 +1,14 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Data;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/20/2023, 8:05 PM
+ **/
+@Data
+public class UserImportDto {
+    private String username;
+    private String email;
+    private String password;
+}
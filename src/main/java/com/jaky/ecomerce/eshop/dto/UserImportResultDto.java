@@ -0,0 +1,16 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import lombok.Data;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/20/2023, 8:10 PM
+ **/
+@Data
+public class UserImportResultDto {
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
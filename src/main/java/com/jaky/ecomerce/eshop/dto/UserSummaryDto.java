@@ -0,0 +1,30 @@
+package com.jaky.ecomerce.eshop.dto;
+
+import com.jaky.ecomerce.eshop.model.Role;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/12/2023, 3:10 PM
+ **/
+@Data
+@NoArgsConstructor
+public class UserSummaryDto {
+    private Long id;
+    private String username;
+    private String email;
+    private boolean active;
+    private Set<Role> roles = EnumSet.noneOf(Role.class);
+
+    public UserSummaryDto(Long id, String username, String email, boolean active, Set<Role> roles) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.active = active;
+        this.roles = roles;
+    }
+}
@@ -0,0 +1,45 @@
+package com.jaky.ecomerce.eshop.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is started.
+ * Statements run through {@code JdbcTemplate} bypass Hibernate and are not counted.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/16/2023, 7:30 PM
+ **/
+public class QueryCountInspector implements StatementInspector {
+    /**
+     * Number of statements of the current request, {@code null} outside of a count.
+     */
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    /**
+     * Start counting on the current thread.
+     */
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Stop counting on the current thread.
+     *
+     * @return number of statements since {@link #start()}.
+     */
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,55 @@
+package com.jaky.ecomerce.eshop.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 3:10 PM
+ **/
+@Entity
+@Table(name = "orders")
+@Getter
+@Setter
+@NoArgsConstructor
+public class Order {
+    /**
+     * The unique code of the object.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Id of the user who placed the order.
+     */
+    private Long userId;
+
+    /**
+     * Sum of the prices of all ordered pieces.
+     */
+    private long totalPrice;
+
+    /**
+     * Time the order was placed.
+     */
+    private Instant createdAt;
+
+    /**
+     * Ordered products.
+     */
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OrderItem> items = new ArrayList<>();
+
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+    }
+}
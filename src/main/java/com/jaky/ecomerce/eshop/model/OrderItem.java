@@ -0,0 +1,39 @@
+package com.jaky.ecomerce.eshop.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ordered product with its name and price at the time of the order.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 3:15 PM
+ **/
+@Entity
+@Table(name = "order_item")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OrderItem {
+    /**
+     * The unique code of the object.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id")
+    private Order order;
+
+    private Long productId;
+
+    private String productName;
+
+    private int price;
+
+    private int quantity;
+}
@@ -0,0 +1,71 @@
+package com.jaky.ecomerce.eshop.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Email waiting for delivery. Written in the same transaction as the change it reports,
+ * and sent later by the outbox dispatcher.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/22/2023, 7:35 PM
+ **/
+@Entity
+@Table(name = "mail_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxMessage {
+    /**
+     * The unique code of the object.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_outbox_seq")
+    @SequenceGenerator(name = "mail_outbox_seq", sequenceName = "mail_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Email address of the recipient.
+     */
+    private String recipient;
+
+    /**
+     * Email subject.
+     */
+    private String subject;
+
+    /**
+     * Email text.
+     */
+    private String body;
+
+    /**
+     * Delivery state.
+     */
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    /**
+     * Number of failed delivery attempts.
+     */
+    private int attempts;
+
+    /**
+     * Time after which the next delivery attempt is made.
+     */
+    private Instant nextAttemptAt;
+
+    /**
+     * Time when the message was written.
+     */
+    private Instant createdAt;
+
+    /**
+     * Error of the last failed delivery attempt.
+     */
+    private String lastError;
+}
@@ -0,0 +1,30 @@
+package com.jaky.ecomerce.eshop.model;
+
+/**
+ * Delivery state of an {@link OutboxMessage}.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/22/2023, 7:40 PM
+ **/
+public enum OutboxStatus {
+    /**
+     * Waiting for the first or a repeated delivery attempt.
+     */
+    PENDING,
+
+    /**
+     * Claimed by a dispatcher which is sending it. The claim is a lease: once the next attempt time
+     * has passed without an outcome, the message is due again.
+     */
+    SENDING,
+
+    /**
+     * Delivered to the mail server.
+     */
+    SENT,
+
+    /**
+     * All delivery attempts failed.
+     */
+    FAILED
+}
@@ -0,0 +1,81 @@
+package com.jaky.ecomerce.eshop.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 2:10 PM
+ **/
+@Entity
+@Table(name = "products")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class Product {
+    /**
+     * The unique code of the object.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Product name.
+     */
+    @NotBlank(message = "Name cannot be empty")
+    private String name;
+
+    /**
+     * Product description.
+     */
+    private String description;
+
+    /**
+     * Product brand.
+     */
+    @NotBlank(message = "Brand cannot be empty")
+    private String brand;
+
+    /**
+     * Product category.
+     */
+    @NotBlank(message = "Category cannot be empty")
+    private String category;
+
+    /**
+     * Product price.
+     */
+    @NotNull(message = "Price cannot be empty")
+    @Min(value = 0, message = "Price cannot be negative")
+    private Integer price;
+
+    /**
+     * Name of the product image file.
+     */
+    private String imageFile;
+
+    /**
+     * Number of pieces available for orders.
+     */
+    @NotNull(message = "Stock cannot be empty")
+    @Min(value = 0, message = "Stock cannot be negative")
+    private Integer stock = 0;
+
+    /**
+     * Incremented on every change, including stock reservations, so that a stale update is rejected.
+     */
+    @Version
+    private Long version;
+}
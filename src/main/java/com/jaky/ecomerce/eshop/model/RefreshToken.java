@@ -0,0 +1,61 @@
+package com.jaky.ecomerce.eshop.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Opaque refresh token, stored as hash. Every refresh replaces the token by a new one of the same family,
+ * so a token which is presented after it was used reveals that it was stolen.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/10/2023, 4:00 PM
+ **/
+@Entity
+@Table(name = "refresh_token")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RefreshToken {
+    /**
+     * The unique code of the object.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_seq")
+    @SequenceGenerator(name = "refresh_token_seq", sequenceName = "refresh_token_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Base64 encoded SHA-256 hash of the token.
+     */
+    private String tokenHash;
+
+    /**
+     * Shared by all tokens issued from one login.
+     */
+    private String familyId;
+
+    private Long userId;
+
+    private String email;
+
+    /**
+     * Version of the user credentials when the family was issued.
+     */
+    private int tokenVersion;
+
+    private Instant expiresAt;
+
+    /**
+     * Time the token was exchanged for a new one, null while it is unused.
+     */
+    private Instant usedAt;
+
+    /**
+     * True if the family was revoked by logout or reuse detection.
+     */
+    private boolean revoked;
+}
@@ -0,0 +1,36 @@
+package com.jaky.ecomerce.eshop.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Token which was revoked before its expiration, identified by its {@code jti} claim.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/08/2023, 8:30 PM
+ **/
+@Entity
+@Table(name = "revoked_token")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    /**
+     * The {@code jti} claim of the token.
+     */
+    @Id
+    private String id;
+
+    /**
+     * Expiration of the token, after which the revocation is no longer needed.
+     */
+    private Instant expiresAt;
+}
@@ -3,6 +3,9 @@ package com.jaky.ecomerce.eshop.model;
 import org.springframework.security.core.GrantedAuthority;
 
 /**
+ * Roles are persisted as bitmask of their ordinals by {@link RoleSetConverter},
+ * so new roles must only be appended.
+ *
  * @author : Jaiky Nguyen
  * @since : 10/24/2023, 9:20 PM
  **/
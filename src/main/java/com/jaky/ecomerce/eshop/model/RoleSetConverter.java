@@ -0,0 +1,48 @@
+package com.jaky.ecomerce.eshop.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores a set of {@link Role} as a bitmask in one integer column.
+ * Bit {@code n} is set when the user has the role with ordinal {@code n}.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/14/2023, 8:10 PM
+ **/
+@Converter
+public class RoleSetConverter implements AttributeConverter<Set<Role>, Integer> {
+    /**
+     * All roles in ordinal order.
+     */
+    private static final Role[] ROLES = Role.values();
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<Role> roles) {
+        int mask = 0;
+
+        if (roles != null) {
+            for (Role role : roles) {
+                mask |= 1 << role.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public Set<Role> convertToEntityAttribute(Integer mask) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+
+        if (mask != null) {
+            for (Role role : ROLES) {
+                if ((mask & 1 << role.ordinal()) != 0) {
+                    roles.add(role);
+                }
+            }
+        }
+        return roles;
+    }
+}
@@ -24,9 +24,11 @@ public class User implements UserDetails {
     /**
      * The unique code of the object.
      * The @Id annotation says that the field is the key for the current object.
+     * Ids are taken from the "users_seq" sequence in blocks of 50, so batched inserts need no round-trip per row.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -67,14 +69,18 @@ public class User implements UserDetails {
      */
     private String passwordResetCode;
 
+    /**
+     * Version of the user credentials and roles.
+     * Incremented on every change, which revokes all tokens issued before it.
+     */
+    private int tokenVersion;
+
     /**
      * User role. User can have multiple roles.
-     * Sampling on first access to the current object.
-     * The value of the field (id of the {@link User}) is stored in the "user_id" column.
+     * Stored as bitmask in the "role_mask" column of the user row, see {@link RoleSetConverter}.
      */
-    @ElementCollection(targetClass = Role.class, fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_role", joinColumns = @JoinColumn(name = "user_id"))
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = RoleSetConverter.class)
+    @Column(name = "role_mask", nullable = false)
     private Set<Role> roles;
 
     public boolean isAdmin() {
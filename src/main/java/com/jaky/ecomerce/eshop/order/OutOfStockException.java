@@ -0,0 +1,22 @@
+package com.jaky.ecomerce.eshop.order;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an order cannot be placed because a product has not enough stock.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 4:45 PM
+ **/
+@Getter
+public class OutOfStockException extends RuntimeException {
+    /**
+     * Product which is not available in the ordered quantity.
+     */
+    private final long productId;
+
+    public OutOfStockException(long productId) {
+        super("Product " + productId + " is out of stock");
+        this.productId = productId;
+    }
+}
@@ -0,0 +1,145 @@
+package com.jaky.ecomerce.eshop.order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Combines concurrent stock reservations of the same product into one statement.
+ * Every caller queues its request. The caller which finds no batch running for the product becomes
+ * the leader and reserves the sum of all queued requests at once, the others wait for its result.
+ * When the product has not enough stock for the whole batch, the requests are reserved one by one,
+ * so smaller requests may still succeed.
+ * Only one batch per product runs at a time, so requests for a popular product do not queue up
+ * for the row lock in the database.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 4:10 PM
+ **/
+public class StockReservationBatcher {
+    private final StockStore stockStore;
+
+    /**
+     * Maximum number of requests reserved by one statement.
+     */
+    private final int maxBatchSize;
+
+    private final Map<Long, ProductQueue> queues = new ConcurrentHashMap<>();
+
+    public StockReservationBatcher(StockStore stockStore, int maxBatchSize) {
+        this.stockStore = stockStore;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Take the quantity from the stock of a product if enough pieces are available.
+     * Blocks until the batch containing the request is reserved.
+     *
+     * @param productId product id.
+     * @param quantity  number of pieces.
+     * @return true if the stock was decreased.
+     */
+    public boolean reserve(long productId, int quantity) {
+        ProductQueue queue = queues.computeIfAbsent(productId, id -> new ProductQueue());
+        Request request = new Request(quantity);
+        queue.pending.add(request);
+
+        // A leader checks the queue again after releasing it, so a request queued while a batch
+        // was running is never left without a leader.
+        while (!queue.pending.isEmpty() && queue.running.compareAndSet(false, true)) {
+            try {
+                drain(productId, queue);
+            } finally {
+                queue.running.set(false);
+            }
+        }
+        try {
+            return request.result.join();
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+        }
+    }
+
+    /**
+     * Return the quantity to the stock of a product.
+     *
+     * @param productId product id.
+     * @param quantity  number of pieces.
+     */
+    public void release(long productId, int quantity) {
+        stockStore.release(productId, quantity);
+    }
+
+    private void drain(long productId, ProductQueue queue) {
+        List<Request> batch = new ArrayList<>();
+        Request request;
+
+        while ((request = queue.pending.poll()) != null) {
+            batch.add(request);
+
+            if (batch.size() == maxBatchSize) {
+                reserve(productId, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            reserve(productId, batch);
+        }
+    }
+
+    private void reserve(long productId, List<Request> batch) {
+        try {
+            long total = 0;
+
+            for (Request request : batch) {
+                total += request.quantity;
+            }
+            if (total <= Integer.MAX_VALUE && stockStore.reserve(productId, (int) total)) {
+                batch.forEach(request -> request.result.complete(true));
+                return;
+            }
+            if (batch.size() == 1) {
+                batch.get(0).result.complete(false);
+                return;
+            }
+            // A request cannot succeed after a smaller one of the same batch has failed.
+            int failedQuantity = Integer.MAX_VALUE;
+
+            for (Request request : batch) {
+                boolean reserved = request.quantity < failedQuantity && stockStore.reserve(productId, request.quantity);
+
+                if (!reserved) {
+                    failedQuantity = Math.min(failedQuantity, request.quantity);
+                }
+                request.result.complete(reserved);
+            }
+        } catch (RuntimeException exception) {
+            batch.forEach(request -> request.result.completeExceptionally(exception));
+        }
+    }
+
+    private static final class ProductQueue {
+        private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+
+        /**
+         * True while a leader reserves batches of this product.
+         */
+        private final AtomicBoolean running = new AtomicBoolean();
+    }
+
+    private static final class Request {
+        private final int quantity;
+
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private Request(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.jaky.ecomerce.eshop.order;
+
+/**
+ * Stock of products, changed by single atomic statements.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 4:00 PM
+ **/
+public interface StockStore {
+    /**
+     * Take the quantity from the stock of a product if enough pieces are available.
+     *
+     * @param productId product id.
+     * @param quantity  number of pieces.
+     * @return true if the stock was decreased.
+     */
+    boolean reserve(long productId, int quantity);
+
+    /**
+     * Return the quantity to the stock of a product.
+     *
+     * @param productId product id.
+     * @param quantity  number of pieces.
+     */
+    void release(long productId, int quantity);
+}
@@ -4,6 +4,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,4 +21,317 @@ public class ApplicationProperties {
     private List<String> allowedHeaders;
     private List<String> exposedHeaders;
     private List<String> allowedMethods;
+    private final Cache userCache = new Cache();
+    private final Cache tokenCache = new Cache();
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+    private final Mail mail = new Mail();
+    private final Catalog catalog = new Catalog();
+    private final Cart cart = new Cart();
+    private final Order order = new Order();
+    private final Images images = new Images();
+    private final Revocation revocation = new Revocation();
+    private final LoginThrottle loginThrottle = new LoginThrottle();
+    private final RateLimit rateLimit = new RateLimit();
+
+    /**
+     * Settings of an in-process cache.
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+        /**
+         * Maximum number of cached entries, zero disables the cache.
+         */
+        private int maxSize = 10000;
+
+        /**
+         * Time to live of a cached entry.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Settings of password hashing.
+     */
+    @Getter
+    @Setter
+    public static class PasswordHashing {
+        /**
+         * BCrypt cost of new password hashes. Stored hashes with a lower cost are upgraded on login.
+         */
+        private int strength = 8;
+
+        /**
+         * Number of threads computing password hashes.
+         */
+        private int poolSize = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Number of threads encoding passwords of bulk imports, separate from the threads of logins.
+         */
+        private int bulkPoolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        /**
+         * Number of hash computations which may wait for a thread before requests are rejected.
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * Maximum time a request waits for its hash.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Settings of email delivery through the outbox table.
+     */
+    @Getter
+    @Setter
+    public static class Mail {
+        /**
+         * Sender address.
+         */
+        private String from;
+
+        /**
+         * Link to the activation page, the activation code is appended.
+         */
+        private String activationUrl;
+
+        /**
+         * Link to the password reset page, the password reset code is appended.
+         */
+        private String passwordResetUrl;
+
+        /**
+         * Delay between two runs of the dispatcher.
+         */
+        private Duration dispatchInterval = Duration.ofSeconds(5);
+
+        /**
+         * Maximum number of emails sent over one connection to the mail server.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Maximum number of batches sent by one run of the dispatcher.
+         */
+        private int maxBatchesPerRun = 10;
+
+        /**
+         * Number of delivery attempts before an email is marked as failed.
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * Delay before the first retry, doubled after every failed attempt.
+         */
+        private Duration retryDelay = Duration.ofSeconds(30);
+
+        /**
+         * Time a dispatcher may take to send a claimed batch before other dispatchers may claim it again.
+         * Must be longer than sending a full batch takes, including the mail server timeouts.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Settings of the in-memory product catalog.
+     */
+    @Getter
+    @Setter
+    public static class Catalog {
+        /**
+         * Delay between two full reloads of the catalog, picking up changes made by other instances.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Settings of the in-memory carts.
+     */
+    @Getter
+    @Setter
+    public static class Cart {
+        /**
+         * Delay between two writes of changed carts to the database.
+         */
+        private Duration flushInterval = Duration.ofSeconds(10);
+
+        /**
+         * Maximum number of carts written in one transaction.
+         */
+        private int flushBatchSize = 500;
+
+        /**
+         * Time after the last use of a cart before it is evicted from memory.
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+
+        /**
+         * Maximum number of different products in a cart.
+         */
+        private int maxItems = 100;
+
+        /**
+         * Maximum quantity of one product in a cart.
+         */
+        private int maxQuantity = 99;
+    }
+
+    /**
+     * Settings of order placement.
+     */
+    @Getter
+    @Setter
+    public static class Order {
+        /**
+         * Maximum number of concurrent reservations of one product combined into one statement.
+         */
+        private int reservationBatchSize = 100;
+    }
+
+    /**
+     * Settings of product image serving.
+     */
+    @Getter
+    @Setter
+    public static class Images {
+        /**
+         * Directory of the product images.
+         */
+        private String directory = "images";
+
+        /**
+         * Directory of the generated thumbnails, one subdirectory per width.
+         */
+        private String thumbnailDirectory = "images/thumbnails";
+
+        /**
+         * Widths of the generated thumbnails, a requested width is rounded up to the next one.
+         */
+        private List<Integer> thumbnailWidths = List.of(200, 400);
+
+        /**
+         * Time clients may cache an image without revalidation.
+         */
+        private Duration cacheMaxAge = Duration.ofDays(7);
+    }
+
+    /**
+     * Settings of the list of revoked tokens.
+     */
+    @Getter
+    @Setter
+    public static class Revocation {
+        /**
+         * Number of revoked, not expired tokens the filter is sized for. It grows with the stored revocations.
+         */
+        private long expectedRevocations = 100000;
+
+        /**
+         * Share of not revoked tokens which are checked in the database.
+         */
+        private double falsePositiveRate = 0.001;
+
+        /**
+         * Delay between two rebuilds of the filter, which pick up revocations of other instances.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Settings of login throttling.
+     */
+    @Getter
+    @Setter
+    public static class LoginThrottle {
+        /**
+         * Length of the sliding window in which attempts are counted.
+         */
+        private Duration window = Duration.ofMinutes(15);
+
+        /**
+         * Number of steps the window slides in, rejected clients can retry after one step.
+         */
+        private int buckets = 15;
+
+        /**
+         * Number of counters per sketch row. More counters make collisions of unrelated clients less likely.
+         */
+        private int width = 4096;
+
+        /**
+         * Maximum number of login attempts of one client address within the window.
+         */
+        private int maxAttemptsPerAddress = 100;
+
+        /**
+         * Maximum number of failed logins of one email within the window.
+         */
+        private int maxFailuresPerEmail = 10;
+    }
+
+    /**
+     * Settings of request rate and concurrency limits by route group.
+     */
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of clients whose buckets are kept per route group.
+         */
+        private int maxClients = 100000;
+
+        /**
+         * Time without requests of a client after which its bucket is dropped and starts full again.
+         */
+        private Duration clientTtl = Duration.ofMinutes(10);
+
+        /**
+         * Route groups, a request is limited by the first group with a matching pattern.
+         */
+        private List<Route> routes = new ArrayList<>();
+
+        /**
+         * Limits of a group of routes. Zero disables a limit.
+         */
+        @Getter
+        @Setter
+        public static class Route {
+            private String name;
+
+            /**
+             * Ant-style patterns of the servlet paths in the group.
+             */
+            private List<String> patterns = new ArrayList<>();
+
+            /**
+             * Requests per second of all clients together.
+             */
+            private double rate;
+
+            /**
+             * Requests of all clients together allowed at once above the rate.
+             */
+            private int burst;
+
+            /**
+             * Requests per second of one client.
+             */
+            private double clientRate;
+
+            /**
+             * Requests of one client allowed at once above the rate.
+             */
+            private int clientBurst;
+
+            /**
+             * Maximum number of requests of the group processed at the same time.
+             */
+            private int maxConcurrent;
+        }
+    }
 }
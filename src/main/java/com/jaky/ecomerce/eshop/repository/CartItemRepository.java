@@ -0,0 +1,67 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores cart contents as one row per user and product, written in JDBC batches.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 8:30 PM
+ **/
+@Repository
+@RequiredArgsConstructor
+public class CartItemRepository {
+    private static final String SELECT = "select product_id, quantity from cart_item where user_id = ?";
+
+    private static final String DELETE = "delete from cart_item where user_id = ?";
+
+    private static final String INSERT = "insert into cart_item (user_id, product_id, quantity) values (?, ?, ?)";
+
+    /**
+     * Reads the cart items and writes them back as JDBC batches.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the cart of the user.
+     *
+     * @param userId user id.
+     * @return quantity by product id, empty if the user has no cart.
+     */
+    public Map<Long, Integer> findItems(long userId) {
+        Map<Long, Integer> items = new HashMap<>();
+        jdbcTemplate.query(SELECT, resultSet -> {
+            items.put(resultSet.getLong("product_id"), resultSet.getInt("quantity"));
+        }, userId);
+        return items;
+    }
+
+    /**
+     * Replace the stored carts of the given users, with one batch of deletes and one batch of inserts.
+     *
+     * @param carts quantity by product id, by user id.
+     */
+    @Transactional
+    public void replaceItems(Map<Long, Map<Long, Integer>> carts) {
+        List<Object[]> userIds = new ArrayList<>(carts.size());
+        List<Object[]> rows = new ArrayList<>();
+
+        carts.forEach((userId, items) -> {
+            userIds.add(new Object[]{userId});
+            items.forEach((productId, quantity) -> rows.add(new Object[]{userId, productId, quantity}));
+        });
+        jdbcTemplate.batchUpdate(DELETE, userIds);
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import com.jaky.ecomerce.eshop.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 3:25 PM
+ **/
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    /**
+     * Returns the orders of the user with their items, newest first.
+     *
+     * @param userId user id.
+     * @return list of {@link Order}.
+     */
+    @EntityGraph(attributePaths = "items")
+    List<Order> findByUserIdOrderByIdDesc(Long userId);
+
+    /**
+     * Returns the order of the user with its items.
+     *
+     * @param id     order id.
+     * @param userId user id.
+     * @return The {@link Order} class object, or null if the user has no such order.
+     */
+    @EntityGraph(attributePaths = "items")
+    Order findByIdAndUserId(Long id, Long userId);
+}
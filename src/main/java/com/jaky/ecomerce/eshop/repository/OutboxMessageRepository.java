@@ -0,0 +1,36 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import com.jaky.ecomerce.eshop.model.OutboxMessage;
+import com.jaky.ecomerce.eshop.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/22/2023, 7:50 PM
+ **/
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    /**
+     * Returns messages which are due for delivery and locks them.
+     * Rows locked by another application instance are skipped, so instances never claim the same message.
+     *
+     * @param statuses message statuses, pending ones and those whose claim has expired.
+     * @param now      current time.
+     * @param pageable maximum number of messages.
+     * @return list of {@link OutboxMessage}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from OutboxMessage m where m.status in :statuses and m.nextAttemptAt <= :now order by m.id")
+    List<OutboxMessage> findDue(@Param("statuses") Collection<OutboxStatus> statuses, @Param("now") Instant now, Pageable pageable);
+}
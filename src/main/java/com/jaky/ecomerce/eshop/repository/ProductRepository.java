@@ -0,0 +1,11 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import com.jaky.ecomerce.eshop.model.Product;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 2:20 PM
+ **/
+public interface ProductRepository extends JpaRepository<Product, Long> {
+}
@@ -0,0 +1,39 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import com.jaky.ecomerce.eshop.order.StockStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Changes the stock of products with one statement each. The condition on the stock makes
+ * a reservation atomic without reading the row first, the version is incremented so that
+ * a concurrent edit of the product fails.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 4:30 PM
+ **/
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository implements StockStore {
+    private static final String RESERVE =
+            "update products set stock = stock - ?, version = version + 1 where id = ? and stock >= ?";
+
+    private static final String RELEASE =
+            "update products set stock = stock + ?, version = version + 1 where id = ?";
+
+    /**
+     * Runs the conditional stock updates, which need no entity to be loaded.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean reserve(long productId, int quantity) {
+        return jdbcTemplate.update(RESERVE, quantity, productId, quantity) == 1;
+    }
+
+    @Override
+    public void release(long productId, int quantity) {
+        jdbcTemplate.update(RELEASE, quantity, productId);
+    }
+}
@@ -0,0 +1,68 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import com.jaky.ecomerce.eshop.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/10/2023, 4:10 PM
+ **/
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    /**
+     * Returns the refresh token with the given hash.
+     *
+     * @param tokenHash hash of the token.
+     * @return The {@link RefreshToken} class object.
+     */
+    RefreshToken findByTokenHash(String tokenHash);
+
+    /**
+     * Mark the token as used if it is neither used nor revoked yet.
+     *
+     * @param id  token id.
+     * @param now current time.
+     * @return 1 if the token was unused, 0 if another request used it first or its family was revoked.
+     */
+    @Modifying
+    @Query("update RefreshToken r set r.usedAt = :now where r.id = :id and r.usedAt is null and r.revoked = false")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    /**
+     * Revoke all tokens of a family.
+     *
+     * @param familyId family id.
+     * @return number of revoked tokens.
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Revoke all tokens of a user.
+     *
+     * @param userId user id.
+     * @return number of revoked tokens.
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.userId = :userId")
+    int revokeByUserId(@Param("userId") Long userId);
+
+    /**
+     * Delete expired tokens.
+     *
+     * @param now current time.
+     * @return number of deleted tokens.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,37 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import com.jaky.ecomerce.eshop.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/08/2023, 8:35 PM
+ **/
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    /**
+     * Returns the ids of revoked tokens which are not expired yet.
+     *
+     * @param now current time.
+     * @return list of {@code jti} claims.
+     */
+    @Query("select r.id from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveIds(@Param("now") Instant now);
+
+    /**
+     * Delete revocations of expired tokens.
+     *
+     * @param now current time.
+     * @return number of deleted revocations.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,63 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import com.jaky.ecomerce.eshop.dto.UserSummaryDto;
+import com.jaky.ecomerce.eshop.model.RoleSetConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+/**
+ * Reads all users with a database cursor, without loading the whole table into memory.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/12/2023, 3:30 PM
+ **/
+@Repository
+@RequiredArgsConstructor
+public class UserExportRepository {
+    /**
+     * Number of rows fetched from the database per round-trip.
+     */
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * Users in id order, roles are stored as bitmask on the same row.
+     */
+    private static final String QUERY = "select id, username, email, active, role_mask from users order by id";
+
+    /**
+     * Converts the role bitmask column.
+     */
+    private static final RoleSetConverter ROLE_CONVERTER = new RoleSetConverter();
+
+    /**
+     * Streams the users with a forward only cursor.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Pass every user to the consumer in id order.
+     * PostgreSQL only uses a cursor inside a transaction, so it must be called in one.
+     *
+     * @param consumer consumer of the users.
+     */
+    public void forEach(Consumer<UserSummaryDto> consumer) {
+        PreparedStatementCreator statementCreator = connection -> {
+            PreparedStatement statement = connection.prepareStatement(QUERY,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        };
+        RowCallbackHandler rowHandler = resultSet -> consumer.accept(new UserSummaryDto(resultSet.getLong("id"),
+                resultSet.getString("username"), resultSet.getString("email"), resultSet.getBoolean("active"),
+                ROLE_CONVERTER.convertToEntityAttribute(resultSet.getInt("role_mask"))));
+
+        jdbcTemplate.query(statementCreator, rowHandler);
+    }
+}
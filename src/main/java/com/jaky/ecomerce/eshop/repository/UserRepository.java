@@ -1,7 +1,21 @@
 package com.jaky.ecomerce.eshop.repository;
 
+import com.jaky.ecomerce.eshop.dto.UserCredentialsDto;
+import com.jaky.ecomerce.eshop.dto.UserSummaryDto;
 import com.jaky.ecomerce.eshop.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author : Jaiky Nguyen
@@ -32,6 +46,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     User findByEmail(String email);
 
+    /**
+     * Returns the columns needed to authenticate the user with the given email.
+     * The result is not a managed entity, so the persistence context neither tracks nor flushes it.
+     *
+     * @param email user email.
+     * @return The {@link UserCredentialsDto} class object.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("select new com.jaky.ecomerce.eshop.dto.UserCredentialsDto(u.id, u.email, u.password, u.roles, " +
+            "u.active, u.activationCode, u.tokenVersion) from User u where u.email = :email")
+    UserCredentialsDto findCredentialsByEmail(@Param("email") String email);
+
     /**
      * Returns the user from the database that has the same password reset code as the value of the input parameter.
      *
@@ -39,4 +66,113 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return The {@link User} class object.
      */
     User findByPasswordResetCode(String code);
+
+    /**
+     * Returns those of the given emails which are already registered.
+     *
+     * @param emails user emails.
+     * @return registered emails.
+     */
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Returns a page of users.
+     *
+     * @param pageable page number, size and sorting.
+     * @return page of {@link UserSummaryDto}.
+     */
+    @Query(value = "select new com.jaky.ecomerce.eshop.dto.UserSummaryDto(u.id, u.username, u.email, u.active, u.roles) " +
+            "from User u",
+            countQuery = "select count(u) from User u")
+    Page<UserSummaryDto> findSummaries(Pageable pageable);
+
+    /**
+     * Returns users with id greater than the given one in id order.
+     *
+     * @param afterId  id of the last user of the previous page.
+     * @param pageable page size.
+     * @return list of {@link UserSummaryDto}.
+     */
+    @Query("select new com.jaky.ecomerce.eshop.dto.UserSummaryDto(u.id, u.username, u.email, u.active, u.roles) " +
+            "from User u where u.id > :afterId order by u.id")
+    List<UserSummaryDto> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Activate the user with the given activation code.
+     *
+     * @param code activation code from the user email.
+     * @return number of activated users.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.activationCode = null, u.active = true where u.activationCode = :code")
+    int activate(@Param("code") String code);
+
+    /**
+     * Set password reset code of the user with the given email.
+     *
+     * @param email user email.
+     * @param code  password reset code.
+     * @return number of updated users.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordResetCode = :code where u.email = :email")
+    int updatePasswordResetCode(@Param("email") String email, @Param("code") String code);
+
+    /**
+     * Set new password of the user with the given email, clear the reset code
+     * and revoke tokens issued before.
+     *
+     * @param email    user email.
+     * @param password encoded password.
+     * @return number of updated users.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password, u.passwordResetCode = null, " +
+            "u.tokenVersion = u.tokenVersion + 1 where u.email = :email")
+    int resetPassword(@Param("email") String email, @Param("password") String password);
+
+    /**
+     * Replace password hash of the user with the given email, without revoking tokens.
+     *
+     * @param email    user email.
+     * @param password encoded password.
+     * @return number of updated users.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    /**
+     * Update profile fields of the user.
+     *
+     * @param id                    user id.
+     * @param email                 user email.
+     * @param activationCode        activation code of the new email.
+     * @param password              encoded password.
+     * @param tokenVersionIncrement 1 to revoke tokens issued before, otherwise 0.
+     * @return number of updated users.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.email = :email, u.activationCode = :activationCode, u.password = :password, " +
+            "u.tokenVersion = u.tokenVersion + :tokenVersionIncrement where u.id = :id")
+    int updateProfile(@Param("id") Long id, @Param("email") String email,
+                      @Param("activationCode") String activationCode, @Param("password") String password,
+                      @Param("tokenVersionIncrement") int tokenVersionIncrement);
+
+    /**
+     * Revoke all tokens issued to the user with the given email.
+     *
+     * @param email user email.
+     * @return number of updated users.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.email = :email")
+    int incrementTokenVersion(@Param("email") String email);
 }
@@ -1,5 +1,8 @@
 package com.jaky.ecomerce.eshop.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
@@ -21,11 +24,26 @@ import java.io.IOException;
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends GenericFilterBean {
+    /**
+     * Refresh requests authenticate with the refresh token, an expired access token sent along is ignored.
+     */
+    private static final String REFRESH_PATH = "/api/v1/rest/refresh";
+
+    /**
+     * Time spent authenticating the request, without the rest of the chain.
+     */
+    private static final String FILTER_TIMER = "eshop.auth.filter";
+
     /**
      * Object for generating and verifying JWT.
      */
     private final JwtProvider jwtProvider;
 
+    /**
+     * Registry of the timer of the token check of every request.
+     */
+    private final MeterRegistry meterRegistry;
+
     /**
      * Constructor for initializing the main variables of the JWT filter.
      * The @Autowired annotation will allow Spring to automatically initialize objects.
@@ -52,20 +70,29 @@ public class JwtFilter extends GenericFilterBean {
      */
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
-        String token = jwtProvider.resolveToken((HttpServletRequest) servletRequest);
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        String token = REFRESH_PATH.equals(request.getServletPath()) ? null : jwtProvider.resolveToken(request);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
 
         try {
-            if (token != null && jwtProvider.validateToken(token)) {
-                Authentication authentication = jwtProvider.getAuthentication(token);
+            if (token != null) {
+                Claims claims = jwtProvider.parseToken(token);
+                Authentication authentication = jwtProvider.getAuthentication(claims);
 
                 if (authentication != null) {
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = "authenticated";
                 }
             }
         } catch (JwtAuthenticationException e) {
+            outcome = "rejected";
             SecurityContextHolder.clearContext();
             ((HttpServletResponse) servletResponse).sendError(e.getHttpStatus().value());
             throw new JwtAuthenticationException("JWT token is expired or invalid");
+        } finally {
+            sample.stop(meterRegistry.timer(FILTER_TIMER, "outcome", outcome));
         }
 
         filterChain.doFilter(servletRequest, servletResponse);
@@ -0,0 +1,130 @@
+package com.jaky.ecomerce.eshop.security;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of HMAC keys for signing and verifying JWT.
+ * New tokens are signed with the active key, tokens signed with any key of the ring are accepted.
+ * Each key is identified by a {@code kid} derived from the secret, so the same secret
+ * always gets the same identifier on every application instance.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/06/2023, 8:20 PM
+ **/
+final class JwtKeyRing {
+    /**
+     * JCA name of the HS256 algorithm.
+     */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * Identifier of the key used for signing new tokens.
+     */
+    private final String activeKeyId;
+
+    /**
+     * All keys accepted for verification by identifier.
+     */
+    private final Map<String, SecretKey> keys;
+
+    private JwtKeyRing(String activeKeyId, Map<String, SecretKey> keys) {
+        this.activeKeyId = activeKeyId;
+        this.keys = Collections.unmodifiableMap(keys);
+    }
+
+    /**
+     * Create key ring.
+     *
+     * @param activeSecret    secret for signing new tokens.
+     * @param previousSecrets secrets of tokens which are still accepted.
+     * @return key ring.
+     */
+    static JwtKeyRing of(String activeSecret, String... previousSecrets) {
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        String activeKeyId = keyId(activeSecret);
+        keys.put(activeKeyId, key(activeSecret));
+
+        for (String secret : previousSecrets == null ? new String[0] : previousSecrets) {
+            if (secret != null && !secret.isBlank()) {
+                keys.putIfAbsent(keyId(secret), key(secret));
+            }
+        }
+        return new JwtKeyRing(activeKeyId, keys);
+    }
+
+    /**
+     * Returns new key ring signing with the given secret and still accepting all keys of this ring.
+     *
+     * @param secret new secret for signing tokens.
+     * @return new key ring.
+     */
+    JwtKeyRing rotate(String secret) {
+        Map<String, SecretKey> rotated = new LinkedHashMap<>();
+        String keyId = keyId(secret);
+        rotated.put(keyId, key(secret));
+        keys.forEach(rotated::putIfAbsent);
+        return new JwtKeyRing(keyId, rotated);
+    }
+
+    /**
+     * Returns new key ring which does not accept the given key anymore.
+     *
+     * @param keyId identifier of the key.
+     * @return new key ring.
+     */
+    JwtKeyRing retire(String keyId) {
+        if (activeKeyId.equals(keyId)) {
+            throw new IllegalArgumentException("Active JWT key cannot be retired");
+        }
+        Map<String, SecretKey> retained = new LinkedHashMap<>(keys);
+        retained.remove(keyId);
+        return new JwtKeyRing(activeKeyId, retained);
+    }
+
+    String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    SecretKey getActiveKey() {
+        return keys.get(activeKeyId);
+    }
+
+    /**
+     * Returns the key with the given identifier.
+     * Tokens without identifier were issued before key rotation and are verified with the active key.
+     *
+     * @param keyId identifier from the JWT header.
+     * @return key or {@code null} if the key is unknown.
+     */
+    SecretKey getKey(String keyId) {
+        return keyId == null ? getActiveKey() : keys.get(keyId);
+    }
+
+    /**
+     * Derive the HMAC key from the secret.
+     * The raw secret bytes are the key, as before when jjwt decoded the Base64 encoded secret on every call.
+     *
+     * @param secret secret from the configuration.
+     * @return HMAC key.
+     */
+    private static SecretKey key(String secret) {
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    private static String keyId(String secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 8);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.jaky.ecomerce.eshop.security;
 
+import com.jaky.ecomerce.eshop.cache.TtlCache;
+import com.jaky.ecomerce.eshop.model.Role;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +17,19 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author : Jaiky Nguyen
@@ -22,11 +37,36 @@ import java.util.Date;
  **/
 @Component
 public class JwtProvider {
+    /**
+     * Time spent verifying a token, tagged by whether the signature check was skipped thanks to the token cache.
+     */
+    private static final String PARSE_TIMER = "eshop.auth.token.parse";
+
     /**
      * Interface which loads user-specific data.
      */
     private final UserDetailsService userDetailsService;
 
+    /**
+     * Credentials changes made in this application instance.
+     */
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    /**
+     * Already verified claims by token hash.
+     */
+    private final TtlCache<String, Claims> tokenCache;
+
+    /**
+     * Tokens revoked before their expiration.
+     */
+    private final TokenRevocationList tokenRevocationList;
+
+    /**
+     * Registry of the token verification timers, tagged by cache hit and result.
+     */
+    private final MeterRegistry meterRegistry;
+
     /**
      * Request header where the JWT is stored.
      */
@@ -39,69 +79,226 @@ public class JwtProvider {
     @Value("${jwt.secret}")
     private String secretKey;
 
+    /**
+     * Secret keys of the previous rotations, whose tokens are still accepted.
+     */
+    @Value("${jwt.previous-secrets:}")
+    private String[] previousSecretKeys;
+
+    /**
+     * Pre-built signing keys. Replaced as a whole on key rotation.
+     */
+    private volatile JwtKeyRing keyRing;
+
+    /**
+     * Thread-safe parser, which picks the verification key by the {@code kid} header of the token.
+     */
+    private JwtParser jwtParser;
+
     /**
      * Validity JWT in milliseconds.
      */
     @Value("${jwt.expiration}")
     private long validityInMilliseconds;
 
+    /**
+     * Build authenticated user from JWT claims without loading it from the database.
+     */
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
     /**
      * Constructor for initializing the main variables of the JWT provider class.
      * The @Autowired annotation will allow Spring to automatically initialize objects.
      *
-     * @param userDetailsService interface which loads user-specific data.
+     * @param userDetailsService   interface which loads user-specific data.
+     * @param tokenVersionRegistry credentials changes made in this application instance.
+     * @param tokenCache           already verified claims by token hash.
+     * @param tokenRevocationList  tokens revoked before their expiration.
+     * @param meterRegistry        registry of the token verification timers.
      */
     @Autowired
-    public JwtProvider(@Qualifier("userDetailsServiceImpl") UserDetailsService userDetailsService) {
+    public JwtProvider(@Qualifier("userDetailsServiceImpl") UserDetailsService userDetailsService,
+                       TokenVersionRegistry tokenVersionRegistry,
+                       TtlCache<String, Claims> tokenCache,
+                       TokenRevocationList tokenRevocationList,
+                       MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.tokenCache = tokenCache;
+        this.tokenRevocationList = tokenRevocationList;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
-     * Encode secret key by Base64 encoding scheme.
+     * Build signing keys once and the parser which reuses them for every token.
      */
     @PostConstruct
     protected void init() {
-        secretKey = Base64.getEncoder().encodeToString(secretKey.getBytes());
+        keyRing = JwtKeyRing.of(secretKey, previousSecretKeys);
+        jwtParser = Jwts.parser().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                Key key = keyRing.getKey(header.getKeyId());
+
+                if (key == null) {
+                    throw new JwtAuthenticationException("JWT token is signed with unknown key", HttpStatus.UNAUTHORIZED);
+                }
+                return key;
+            }
+        });
+    }
+
+    /**
+     * Sign new tokens with the given secret key. Tokens signed with the previous keys stay valid.
+     * Only this instance changes, and the key is lost on restart unless jwt.secret is changed as well.
+     *
+     * @param secret new secret key.
+     * @return identifier of the new key, sent in the {@code kid} header of new tokens.
+     */
+    public synchronized String rotateKey(String secret) {
+        keyRing = keyRing.rotate(secret);
+        return keyRing.getActiveKeyId();
+    }
+
+    /**
+     * Stop accepting tokens signed with the given key.
+     *
+     * @param keyId identifier of the key.
+     * @return true if the key was accepted until now.
+     * @throws IllegalArgumentException if the key signs new tokens.
+     */
+    public synchronized boolean retireKey(String keyId) {
+        if (keyId == null || keyRing.getKey(keyId) == null) {
+            return false;
+        }
+        keyRing = keyRing.retire(keyId);
+        tokenCache.invalidateAll();
+        return true;
     }
 
     /**
      * Create JWT based on data to transfer.
+     * Besides the subject and role the token carries everything needed to rebuild
+     * the {@link UserPrincipal} from the claims alone, and a unique id to revoke it.
      *
-     * @param username user name.
-     * @param role     user role.
+     * @param user authenticated user.
      * @return JWT with claims, date and sign algorithm.
      */
-    public String createToken(String username, String role) {
-        Claims claims = Jwts.claims().setSubject(username);
-        claims.put("role", role);
+    public String createToken(UserPrincipal user) {
+        List<String> roles = new ArrayList<>();
+        for (Role role : user.getRoles()) {
+            roles.add(role.name());
+        }
+        Claims claims = Jwts.claims().setSubject(user.getEmail());
+        claims.put("role", user.getPrimaryRole().name());
+        claims.put("roles", roles);
+        claims.put("uid", user.getId());
+        claims.put("active", user.isActive());
+        claims.put("ver", user.getTokenVersion());
         Date now = new Date();
         Date validity = new Date(now.getTime() + validityInMilliseconds * 1000);
+        JwtKeyRing keys = keyRing;
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keys.getActiveKeyId())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(validity)
-                .signWith(SignatureAlgorithm.HS256, secretKey)
+                .signWith(SignatureAlgorithm.HS256, keys.getActiveKey())
                 .compact();
     }
 
     /**
-     * Validate JWT expiration timestamp.
+     * Parse JWT and verify its signature and expiration timestamp.
+     * The returned claims are meant to be reused for every further check on the same request,
+     * so the token is decoded and verified only once.
      *
      * @param token JWT.
-     * @return true if JWT is not expired and return JwtAuthenticationException if JWT expired.
+     * @return verified claims of the JWT.
+     * @throws JwtAuthenticationException if JWT is invalid, expired or revoked.
      */
-    public boolean validateToken(String token) {
+    public Claims parseToken(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String cache = "hit";
+        String result = "invalid";
 
         try {
-            Jws<Claims> claimsJws = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token);
+            String key = hash(token);
+            Claims claims = tokenCache.get(key);
 
-            return !claimsJws.getBody().getExpiration().before(new Date());
-        } catch (JwtException | IllegalArgumentException exception) {
-            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+            if (claims == null) {
+                cache = "miss";
+                try {
+                    claims = jwtParser.parseClaimsJws(token).getBody();
+                } catch (JwtException | IllegalArgumentException exception) {
+                    throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+                }
+                if (claims.getExpiration() != null) {
+                    tokenCache.put(key, claims, claims.getExpiration().getTime() - System.currentTimeMillis(),
+                            TimeUnit.MILLISECONDS);
+                }
+            }
+            if (claims.getExpiration() == null || claims.getExpiration().before(new Date())) {
+                throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+            }
+            if (tokenRevocationList.isRevoked(claims.getId())) {
+                result = "revoked";
+                throw new JwtAuthenticationException("JWT token is revoked", HttpStatus.UNAUTHORIZED);
+            }
+            result = "valid";
+            return claims;
+        } finally {
+            sample.stop(meterRegistry.timer(PARSE_TIMER, "cache", cache, "result", result));
         }
     }
 
+    /**
+     * Revoke JWT before its expiration.
+     *
+     * @param token JWT.
+     * @return true if the token was revoked, false if it has no id and can only be revoked
+     * together with all other tokens of the user.
+     * @throws JwtAuthenticationException if JWT is invalid, expired or already revoked.
+     */
+    public boolean revokeToken(String token) {
+        Claims claims = parseToken(token);
+
+        if (claims.getId() == null) {
+            return false;
+        }
+        tokenRevocationList.revoke(claims.getId(), claims.getExpiration().toInstant());
+        tokenCache.invalidate(hash(token));
+        return true;
+    }
+
+    /**
+     * Hash JWT to a compact cache key, so raw tokens are not kept in memory.
+     *
+     * @param token JWT.
+     * @return Base64 encoded SHA-256 hash of the JWT.
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Validate JWT expiration timestamp.
+     *
+     * @param token JWT.
+     * @return true if JWT is not expired and return JwtAuthenticationException if JWT expired.
+     */
+    public boolean validateToken(String token) {
+        parseToken(token);
+        return true;
+    }
+
     /**
      * Get authentication user from JWT.
      *
@@ -109,10 +306,74 @@ public class JwtProvider {
      * @return authenticated user from JWT.
      */
     public Authentication getAuthentication(String token) {
-        UserDetails userDetails = this.userDetailsService.loadUserByUsername(getUsername(token));
+        return getAuthentication(parseToken(token));
+    }
+
+    /**
+     * Get authentication user from already verified JWT claims.
+     *
+     * @param claims verified claims of the JWT.
+     * @return authenticated user from JWT.
+     */
+    public Authentication getAuthentication(Claims claims) {
+        UserDetails userDetails;
+
+        if (stateless && claims.get("ver") != null
+                && !tokenVersionRegistry.isStale(claims.getSubject(), claims.getIssuedAt())) {
+            userDetails = getPrincipal(claims);
+        } else {
+            userDetails = loadUser(claims);
+        }
         return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
     }
 
+    /**
+     * Build authenticated user from JWT claims.
+     *
+     * @param claims verified claims of the JWT.
+     * @return user principal from JWT.
+     */
+    private UserPrincipal getPrincipal(Claims claims) {
+        if (!Boolean.TRUE.equals(claims.get("active"))) {
+            throw new JwtAuthenticationException("User account is not active", HttpStatus.FORBIDDEN);
+        }
+        try {
+            Set<Role> roles = EnumSet.noneOf(Role.class);
+            Object names = claims.get("roles");
+
+            if (names instanceof Collection) {
+                for (Object name : (Collection<?>) names) {
+                    roles.add(Role.valueOf(name.toString()));
+                }
+            }
+            Number id = (Number) claims.get("uid");
+            Number version = (Number) claims.get("ver");
+
+            return new UserPrincipal(id == null ? null : id.longValue(), claims.getSubject(), null, roles,
+                    true, version.intValue());
+        } catch (ClassCastException | IllegalArgumentException exception) {
+            throw new JwtAuthenticationException("JWT token is expired or invalid", HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    /**
+     * Load authenticated user from the database and check that the token was issued
+     * for the current version of the user credentials.
+     *
+     * @param claims verified claims of the JWT.
+     * @return user from the database.
+     */
+    private UserDetails loadUser(Claims claims) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
+        Object version = claims.get("ver");
+
+        if (version instanceof Number && userDetails instanceof UserPrincipal
+                && ((Number) version).intValue() != ((UserPrincipal) userDetails).getTokenVersion()) {
+            throw new JwtAuthenticationException("JWT token is revoked", HttpStatus.UNAUTHORIZED);
+        }
+        return userDetails;
+    }
+
     /**
      * Get username from JWT.
      *
@@ -120,7 +381,7 @@ public class JwtProvider {
      * @return username from JWT.
      */
     public String getUsername(String token) {
-        return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody().getSubject();
+        return parseToken(token).getSubject();
     }
 
     /**
@@ -0,0 +1,113 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.jaky.ecomerce.eshop.cache.SlidingWindowCounter;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits login attempts per client address and failed logins per email within a sliding window,
+ * so that password guessing is rejected before a password hash is computed.
+ * Counters are approximate and use fixed memory however many addresses and emails are seen.
+ * They may overestimate, so a client can be throttled slightly before reaching the limit.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/12/2023, 8:00 PM
+ **/
+@Component
+public class LoginThrottle {
+    private final SlidingWindowCounter attemptsByAddress;
+
+    private final SlidingWindowCounter failuresByEmail;
+
+    private final int maxAttemptsPerAddress;
+
+    private final int maxFailuresPerEmail;
+
+    private final LongAdder rejectedByAddress = new LongAdder();
+
+    private final LongAdder rejectedByEmail = new LongAdder();
+
+    @Autowired
+    public LoginThrottle(ApplicationProperties applicationProperties) {
+        this(applicationProperties, System::currentTimeMillis);
+    }
+
+    LoginThrottle(ApplicationProperties applicationProperties, LongSupplier clock) {
+        ApplicationProperties.LoginThrottle settings = applicationProperties.getLoginThrottle();
+        long windowMillis = settings.getWindow().toMillis();
+        this.attemptsByAddress = new SlidingWindowCounter(windowMillis, settings.getBuckets(), settings.getWidth(),
+                clock);
+        this.failuresByEmail = new SlidingWindowCounter(windowMillis, settings.getBuckets(), settings.getWidth(),
+                clock);
+        this.maxAttemptsPerAddress = settings.getMaxAttemptsPerAddress();
+        this.maxFailuresPerEmail = settings.getMaxFailuresPerEmail();
+    }
+
+    /**
+     * Count a login attempt and check whether it may proceed.
+     *
+     * @param email         email of the login request.
+     * @param remoteAddress address of the client.
+     * @return true if the attempt is within the limits.
+     */
+    public boolean tryAcquire(String email, String remoteAddress) {
+        if (remoteAddress != null && attemptsByAddress.increment(remoteAddress) > maxAttemptsPerAddress) {
+            rejectedByAddress.increment();
+            return false;
+        }
+        if (email != null && failuresByEmail.estimate(normalize(email)) >= maxFailuresPerEmail) {
+            rejectedByEmail.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Count a failed login of the email.
+     *
+     * @param email email of the login request.
+     */
+    public void loginFailed(String email) {
+        if (email != null) {
+            failuresByEmail.increment(normalize(email));
+        }
+    }
+
+    /**
+     * Forget the failed logins of the email, after its owner logged in successfully.
+     *
+     * @param email email of the login request.
+     */
+    public void loginSucceeded(String email) {
+        if (email != null) {
+            failuresByEmail.reset(normalize(email));
+        }
+    }
+
+    /**
+     * Returns the time after which a rejected client should retry.
+     *
+     * @return delay in seconds.
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(attemptsByAddress.getBucketMillis()));
+    }
+
+    public long getRejectedByAddress() {
+        return rejectedByAddress.sum();
+    }
+
+    public long getRejectedByEmail() {
+        return rejectedByEmail.sum();
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
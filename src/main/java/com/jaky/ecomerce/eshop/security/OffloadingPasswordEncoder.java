@@ -0,0 +1,202 @@
+package com.jaky.ecomerce.eshop.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Password encoder which runs the hashing on a dedicated bounded thread pool.
+ * The number of concurrent hash computations is limited by the pool size, so a burst of logins
+ * cannot take all CPU from the other requests. When the pool queue is full the request is rejected
+ * with {@link PasswordHashingRejectedException} instead of waiting.
+ * Bulk encoding runs on a separate, smaller pool, so an import never takes the threads of logins.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/08/2023, 9:05 PM
+ **/
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+    /**
+     * Encoder which computes the hashes.
+     */
+    private final PasswordEncoder delegate;
+
+    /**
+     * Pool of hashing threads with bounded queue.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Pool of the threads encoding passwords in bulk, separate from the interactive one.
+     */
+    private final ThreadPoolExecutor bulkExecutor;
+
+    /**
+     * Maximum time to wait for a hash in milliseconds, including the time in the queue.
+     */
+    private final long timeoutMillis;
+
+    /**
+     * Time a hash computation waits for a hashing thread.
+     */
+    private final Timer queueTimer;
+
+    /**
+     * Time a password hash takes on a hashing thread, interactive and bulk.
+     */
+    private final Timer encodeTimer;
+
+    /**
+     * Time a password check takes on a hashing thread.
+     */
+    private final Timer matchesTimer;
+
+    /**
+     * Create encoder.
+     *
+     * @param delegate      encoder which computes the hashes.
+     * @param poolSize      number of hashing threads.
+     * @param queueCapacity number of hash computations which may wait for a thread.
+     * @param timeout       maximum time to wait for a hash.
+     * @param bulkPoolSize  number of threads encoding passwords in bulk.
+     * @param meterRegistry registry of the hashing pool metrics.
+     */
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, Duration timeout,
+                                     int bulkPoolSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeout.toMillis();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.bulkExecutor = new ThreadPoolExecutor(bulkPoolSize, bulkPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("password-hashing-bulk-"));
+        this.queueTimer = meterRegistry.timer("eshop.password.queue");
+        this.encodeTimer = meterRegistry.timer("eshop.password.hashing", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("eshop.password.hashing", "operation", "matches");
+        new ExecutorServiceMetrics(executor, "password-hashing", Collections.emptyList()).bindTo(meterRegistry);
+        new ExecutorServiceMetrics(bulkExecutor, "password-hashing-bulk", Collections.emptyList()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Returns true if the encoded password uses an outdated algorithm or cost and should be encoded again.
+     * Only inspects the hash prefix, so it runs on the calling thread.
+     *
+     * @param encodedPassword encoded password.
+     * @return true if the password should be encoded again.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Encode many passwords in parallel on the bulk pool, one task per password.
+     * Intended for bulk operations, which wait for their hashes without a timeout.
+     *
+     * @param rawPasswords passwords to encode.
+     * @return encoded passwords in the same order.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+
+        for (String rawPassword : rawPasswords) {
+            futures.add(bulkExecutor.submit(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword))));
+        }
+        List<String> encodedPasswords = new ArrayList<>(futures.size());
+
+        for (Future<String> future : futures) {
+            encodedPasswords.add(await(future, 0));
+        }
+        return encodedPasswords;
+    }
+
+    /**
+     * Stop the hashing threads.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        bulkExecutor.shutdown();
+    }
+
+    /**
+     * Run the hashing task on the pool, recording the time it waited for a thread
+     * separately from the time of the hash computation.
+     *
+     * @param timer timer of the hash computation.
+     * @param task  hashing task.
+     * @param <T>   type of the task result.
+     * @return task result.
+     */
+    private <T> T call(Timer timer, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+
+        try {
+            future = executor.submit(() -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException exception) {
+            throw new PasswordHashingRejectedException("Password hashing queue is full");
+        }
+        return await(future, timeoutMillis);
+    }
+
+    /**
+     * Wait for the hashing task.
+     *
+     * @param future        hashing task.
+     * @param timeoutMillis maximum time to wait in milliseconds, zero to wait without limit.
+     * @param <T>           type of the task result.
+     * @return task result.
+     */
+    private <T> T await(Future<T> future, long timeoutMillis) {
+        try {
+            return timeoutMillis > 0 ? future.get(timeoutMillis, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException exception) {
+            future.cancel(true);
+            throw new PasswordHashingRejectedException("Password hashing timed out");
+        } catch (InterruptedException exception) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Password hashing was interrupted");
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
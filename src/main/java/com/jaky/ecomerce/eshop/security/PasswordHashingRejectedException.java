@@ -0,0 +1,18 @@
+package com.jaky.ecomerce.eshop.security;
+
+/**
+ * Thrown when the password hashing pool is saturated and the request cannot be served now.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/08/2023, 9:10 PM
+ **/
+public class PasswordHashingRejectedException extends RuntimeException {
+    /**
+     * Constructs an PasswordHashingRejectedException with the specified message.
+     *
+     * @param msg the detail message.
+     */
+    public PasswordHashingRejectedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,124 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.GenericFilterBean;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests over the rate and concurrency limits of their route group,
+ * so that one hammered route cannot use up the threads and database connections of the rest of the API.
+ * Runs after {@link JwtFilter}, so authenticated clients are limited by user and anonymous ones by address.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/14/2023, 7:40 PM
+ **/
+@Component
+public class RateLimitFilter extends GenericFilterBean {
+    /**
+     * Route groups in the configured order, a request is limited by the first matching one.
+     */
+    private final List<RouteLimiter> routes;
+
+    public RateLimitFilter(ApplicationProperties applicationProperties) {
+        ApplicationProperties.RateLimit settings = applicationProperties.getRateLimit();
+        List<RouteLimiter> routes = new ArrayList<>();
+
+        if (settings.isEnabled()) {
+            for (ApplicationProperties.RateLimit.Route route : settings.getRoutes()) {
+                routes.add(new RouteLimiter(route, settings.getMaxClients(), settings.getClientTtl()));
+            }
+        }
+        this.routes = Collections.unmodifiableList(routes);
+    }
+
+    /**
+     * Rejects the request with 429 if its client or route group is over the rate limit,
+     * or with 503 if the route group already processes the maximum number of requests.
+     *
+     * @param servletRequest  the request to process.
+     * @param servletResponse the response associated with the request.
+     * @param filterChain     provides access to the next filter in the chain.
+     * @throws IOException      if an I/O error occurs during this filter's processing of the request
+     * @throws ServletException if the processing fails for any other reason
+     */
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        RouteLimiter route = findRoute(request.getServletPath());
+
+        if (route == null) {
+            filterChain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+        long wait = route.tryAcquireRate(getClient(request));
+
+        if (wait > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L)));
+            return;
+        }
+        if (!route.tryAcquireConcurrency()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return;
+        }
+        try {
+            filterChain.doFilter(servletRequest, servletResponse);
+        } finally {
+            route.release();
+        }
+    }
+
+    /**
+     * Returns the limits of the route groups, for monitoring.
+     *
+     * @return route groups in the configured order.
+     */
+    public List<RouteLimiter> getRoutes() {
+        return routes;
+    }
+
+    private RouteLimiter findRoute(String path) {
+        for (RouteLimiter route : routes) {
+            if (route.matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the key the client is limited by: the email of the authenticated user, otherwise the client address.
+     *
+     * @param request HTTP request.
+     * @return key of the client.
+     */
+    private static String getClient(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal user) {
+            return "user:" + user.getEmail();
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.sendError(status.value());
+    }
+}
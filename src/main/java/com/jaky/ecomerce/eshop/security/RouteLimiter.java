@@ -0,0 +1,164 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits of one group of routes: a token bucket shared by all clients, a token bucket
+ * per client and the maximum number of requests processed at the same time.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/14/2023, 7:40 PM
+ **/
+public final class RouteLimiter {
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final String name;
+
+    private final List<String> patterns;
+
+    /**
+     * Bucket of the whole group, {@code null} if the group rate is not limited.
+     */
+    private final TokenBucket bucket;
+
+    /**
+     * Buckets by client, {@code null} if the client rate is not limited.
+     * A bucket expires only after its client stopped sending requests, so a throttled client
+     * which keeps sending is never handed a fresh one.
+     */
+    private final Cache<String, TokenBucket> clientBuckets;
+
+    /**
+     * Source of the current time in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    private final double clientRate;
+
+    private final int clientBurst;
+
+    /**
+     * Permits of requests in progress, {@code null} if concurrency is not limited.
+     */
+    private final Semaphore bulkhead;
+
+    private final int maxConcurrent;
+
+    private final LongAdder rejectedByRate = new LongAdder();
+
+    private final LongAdder rejectedByConcurrency = new LongAdder();
+
+    RouteLimiter(ApplicationProperties.RateLimit.Route route, int maxClients, Duration clientTtl) {
+        this(route, maxClients, clientTtl, System::nanoTime);
+    }
+
+    RouteLimiter(ApplicationProperties.RateLimit.Route route, int maxClients, Duration clientTtl, LongSupplier clock) {
+        long now = clock.getAsLong();
+        this.name = route.getName();
+        this.patterns = List.copyOf(route.getPatterns());
+        this.clock = clock;
+        this.bucket = route.getRate() > 0 ? new TokenBucket(route.getRate(), route.getBurst(), now) : null;
+        this.clientBuckets = route.getClientRate() > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxClients)
+                        .expireAfterAccess(clientTtl)
+                        .ticker(clock::getAsLong)
+                        .<String, TokenBucket>build()
+                : null;
+        this.clientRate = route.getClientRate();
+        this.clientBurst = route.getClientBurst();
+        this.maxConcurrent = route.getMaxConcurrent();
+        this.bulkhead = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+    }
+
+    /**
+     * Check whether the path belongs to this group.
+     *
+     * @param path servlet path of the request.
+     * @return true if one of the patterns matches the path.
+     */
+    boolean matches(String path) {
+        for (String pattern : patterns) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Take a token of the client and of the group.
+     * The client bucket is checked first, so a throttled client does not use up the tokens of the group.
+     *
+     * @param client key of the user or the address of the client.
+     * @return zero if the request may proceed, otherwise nanoseconds until the next token is available.
+     */
+    long tryAcquireRate(String client) {
+        long now = clock.getAsLong();
+        long wait = 0;
+
+        if (clientBuckets != null) {
+            wait = clientBuckets.get(client, key -> new TokenBucket(clientRate, clientBurst, now)).tryAcquire(now);
+        }
+        if (wait == 0 && bucket != null) {
+            wait = bucket.tryAcquire(now);
+        }
+        if (wait > 0) {
+            rejectedByRate.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Take a permit to process a request. Requests over the limit are rejected instead of waiting,
+     * so they do not hold server threads and database connections needed by other routes.
+     *
+     * @return true if the request may proceed, it must then call {@link #release()}.
+     */
+    boolean tryAcquireConcurrency() {
+        if (bulkhead == null || bulkhead.tryAcquire()) {
+            return true;
+        }
+        rejectedByConcurrency.increment();
+        return false;
+    }
+
+    /**
+     * Return the permit taken by {@link #tryAcquireConcurrency()}.
+     */
+    void release() {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRejectedByRate() {
+        return rejectedByRate.sum();
+    }
+
+    public long getRejectedByConcurrency() {
+        return rejectedByConcurrency.sum();
+    }
+
+    /**
+     * Returns the number of requests of this group in progress.
+     *
+     * @return number of taken permits, zero if concurrency is not limited.
+     */
+    public int getActiveRequests() {
+        return bulkhead == null ? 0 : maxConcurrent - bulkhead.availablePermits();
+    }
+}
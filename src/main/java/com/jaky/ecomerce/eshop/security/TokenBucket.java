@@ -0,0 +1,62 @@
+package com.jaky.ecomerce.eshop.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count and a refill timestamp it keeps
+ * the single time at which the bucket will be full again, so one compare-and-set updates it.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/14/2023, 7:40 PM
+ **/
+final class TokenBucket {
+    /**
+     * Time in nanoseconds in which one token is refilled.
+     */
+    private final long nanosPerToken;
+
+    /**
+     * Time in nanoseconds in which an empty bucket is refilled.
+     */
+    private final long capacityNanos;
+
+    /**
+     * {@link System#nanoTime()} at which all taken tokens are refilled.
+     */
+    private final AtomicLong fullAt;
+
+    /**
+     * Create a full bucket.
+     *
+     * @param tokensPerSecond number of tokens refilled per second.
+     * @param capacity        maximum number of tokens, the size of a burst.
+     * @param now             current {@link System#nanoTime()}.
+     */
+    TokenBucket(double tokensPerSecond, int capacity, long now) {
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.capacityNanos = nanosPerToken * Math.max(capacity, 1);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Take a token if one is available.
+     *
+     * @param now current {@link System#nanoTime()}.
+     * @return zero if a token was taken, otherwise nanoseconds until the next token is available.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long start = current - now > 0 ? current : now;
+            long next = start + nanosPerToken;
+            long excess = next - now - capacityNanos;
+
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
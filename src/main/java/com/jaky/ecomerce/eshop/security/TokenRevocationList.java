@@ -0,0 +1,124 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.jaky.ecomerce.eshop.cache.BloomFilter;
+import com.jaky.ecomerce.eshop.model.RevokedToken;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tokens revoked before their expiration, stored in the database by their {@code jti} claim.
+ * A Bloom filter of all revoked ids answers most checks without I/O, only ids it may contain are
+ * looked up in the database. The filter is rebuilt at startup and periodically, which also picks up
+ * revocations made by other application instances and drops expired ones.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/08/2023, 8:45 PM
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationList {
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Ids revoked since the current rebuild started, added to the new filter after it is published.
+     */
+    private final Set<String> recentlyRevoked = ConcurrentHashMap.newKeySet();
+
+    private volatile BloomFilter filter;
+
+    private final LongAdder databaseLookups = new LongAdder();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * Build a new filter from the revocations in the database.
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${application.revocation.refresh-interval}",
+            fixedDelayString = "${application.revocation.refresh-interval}")
+    public void rebuild() {
+        ApplicationProperties.Revocation settings = applicationProperties.getRevocation();
+        Instant now = Instant.now();
+        recentlyRevoked.clear();
+        revokedTokenRepository.deleteExpired(now);
+        List<String> ids = revokedTokenRepository.findActiveIds(now);
+
+        BloomFilter newFilter = new BloomFilter(Math.max(settings.getExpectedRevocations(), 2L * ids.size()),
+                settings.getFalsePositiveRate());
+        ids.forEach(newFilter::put);
+        filter = newFilter;
+        recentlyRevoked.forEach(newFilter::put);
+        log.debug("Loaded {} revoked tokens", ids.size());
+    }
+
+    /**
+     * Revoke a token.
+     *
+     * @param id        {@code jti} claim of the token.
+     * @param expiresAt expiration of the token.
+     */
+    public void revoke(String id, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(id, expiresAt));
+        recentlyRevoked.add(id);
+        filter.put(id);
+    }
+
+    /**
+     * Returns true if the token was revoked. Only queries the database if the filter may contain the id.
+     * Ids revoked since the current rebuild started are checked directly, so they are reported
+     * also in the moment between publishing a new filter and adding them to it.
+     *
+     * @param id {@code jti} claim of the token, may be null for tokens issued without it.
+     * @return true if the token was revoked.
+     */
+    public boolean isRevoked(String id) {
+        if (id == null) {
+            return false;
+        }
+        if (recentlyRevoked.contains(id)) {
+            return true;
+        }
+        if (!filter.mightContain(id)) {
+            return false;
+        }
+        databaseLookups.increment();
+
+        if (revokedTokenRepository.existsById(id)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Returns the number of checks which were not answered by the filter alone.
+     *
+     * @return number of database lookups.
+     */
+    public long getDatabaseLookups() {
+        return databaseLookups.sum();
+    }
+
+    /**
+     * Returns the number of database lookups of tokens which were not revoked.
+     *
+     * @return number of filter false positives.
+     */
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+}
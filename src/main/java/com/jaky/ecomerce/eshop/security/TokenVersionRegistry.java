@@ -0,0 +1,64 @@
+package com.jaky.ecomerce.eshop.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when user credentials or roles were changed in this application instance.
+ * Stateless authentication consults the database only for tokens issued before such a change.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/02/2023, 8:40 PM
+ **/
+@Component
+public class TokenVersionRegistry {
+    /**
+     * Registry size after which entries older than the token lifetime are removed.
+     */
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    /**
+     * Time of the last credentials change in milliseconds by user email.
+     */
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Validity JWT in seconds.
+     */
+    @Value("${jwt.expiration}")
+    private long validityInSeconds;
+
+    /**
+     * Record that credentials of the user were changed and issued tokens must be checked again.
+     *
+     * @param email user email.
+     */
+    public void credentialsChanged(String email) {
+        if (email == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        changedAt.put(email, now);
+
+        if (changedAt.size() > PRUNE_THRESHOLD) {
+            long oldest = now - validityInSeconds * 1000;
+            changedAt.values().removeIf(time -> time < oldest);
+        }
+    }
+
+    /**
+     * Returns true if the token may have been issued before the last credentials change of the user.
+     *
+     * @param email    user email.
+     * @param issuedAt token issue date.
+     * @return true if the token must be checked against the database.
+     */
+    public boolean isStale(String email, Date issuedAt) {
+        Long time = changedAt.get(email);
+        return time != null && (issuedAt == null || issuedAt.getTime() <= time);
+    }
+}
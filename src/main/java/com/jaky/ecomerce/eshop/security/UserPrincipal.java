@@ -0,0 +1,112 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.jaky.ecomerce.eshop.model.Role;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Immutable authenticated user.
+ * Can be reconstructed from JWT claims alone, so an authenticated request does not need the database.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/02/2023, 8:15 PM
+ **/
+@Getter
+@EqualsAndHashCode(of = {"id", "email"})
+public class UserPrincipal implements UserDetails {
+    /**
+     * The unique code of the user.
+     */
+    private final Long id;
+
+    /**
+     * User email, used as login name and JWT subject.
+     */
+    private final String email;
+
+    /**
+     * Encoded user password. Is {@code null} when the principal is built from JWT claims.
+     */
+    private final String password;
+
+    /**
+     * User roles.
+     */
+    private final Set<Role> roles;
+
+    /**
+     * True if the user account is active and its email is confirmed.
+     */
+    private final boolean active;
+
+    /**
+     * Version of the user credentials. Tokens with an older version are revoked.
+     */
+    private final int tokenVersion;
+
+    public UserPrincipal(Long id, String email, String password, Collection<Role> roles, boolean active, int tokenVersion) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.roles = roles == null || roles.isEmpty()
+                ? Collections.unmodifiableSet(EnumSet.noneOf(Role.class))
+                : Collections.unmodifiableSet(EnumSet.copyOf(roles));
+        this.active = active;
+        this.tokenVersion = tokenVersion;
+    }
+
+    /**
+     * Returns the most privileged role of the user.
+     *
+     * @return {@link Role#ADMIN} for administrators, otherwise {@link Role#USER}.
+     */
+    public Role getPrimaryRole() {
+        return isAdmin() ? Role.ADMIN : Role.USER;
+    }
+
+    public boolean isAdmin() {
+        return roles.contains(Role.ADMIN);
+    }
+
+    /**
+     * Returns the login name of the user, which is the user email.
+     *
+     * @return user email.
+     */
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return roles;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+}
@@ -0,0 +1,53 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.dto.CartDto;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 9:20 PM
+ **/
+public interface CartService {
+    /**
+     * Returns the cart of the user. Products which no longer exist are left out.
+     *
+     * @param userId user id.
+     * @return The {@link CartDto} class object.
+     */
+    CartDto getCart(long userId);
+
+    /**
+     * Add to the quantity of a product in the cart of the user.
+     *
+     * @param userId    user id.
+     * @param productId product id.
+     * @param quantity  quantity to add.
+     * @return updated cart, or null if the cart already has the maximum number of products.
+     */
+    CartDto addItem(long userId, long productId, int quantity);
+
+    /**
+     * Set the quantity of a product in the cart of the user, zero removes the product.
+     *
+     * @param userId    user id.
+     * @param productId product id.
+     * @param quantity  new quantity.
+     * @return updated cart, or null if the cart already has the maximum number of products.
+     */
+    CartDto setItem(long userId, long productId, int quantity);
+
+    /**
+     * Remove a product from the cart of the user.
+     *
+     * @param userId    user id.
+     * @param productId product id.
+     * @return updated cart.
+     */
+    CartDto removeItem(long userId, long productId);
+
+    /**
+     * Remove all products from the cart of the user.
+     *
+     * @param userId user id.
+     */
+    void clear(long userId);
+}
@@ -0,0 +1,68 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.cart.CartStore;
+import com.jaky.ecomerce.eshop.catalog.ProductCatalog;
+import com.jaky.ecomerce.eshop.dto.CartDto;
+import com.jaky.ecomerce.eshop.dto.CartItemDto;
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carts are kept by the {@link CartStore}, products are read from the {@link ProductCatalog},
+ * so no cart operation waits for the database once the cart is loaded.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/29/2023, 9:25 PM
+ **/
+@Service
+@RequiredArgsConstructor
+public class CartServiceImpl implements CartService {
+    private final CartStore cartStore;
+
+    private final ProductCatalog productCatalog;
+
+    @Override
+    public CartDto getCart(long userId) {
+        Map<Long, Integer> items = cartStore.getItems(userId);
+        List<CartItemDto> cartItems = new ArrayList<>(items.size());
+        long totalPrice = 0;
+
+        for (Map.Entry<Long, Integer> item : items.entrySet()) {
+            ProductDto product = productCatalog.get(item.getKey());
+
+            if (product != null) {
+                cartItems.add(new CartItemDto(product, item.getValue()));
+                totalPrice += (long) product.getPrice() * item.getValue();
+            }
+        }
+        cartItems.sort(Comparator.comparingLong(item -> item.getProduct().getId()));
+        return new CartDto(cartItems, totalPrice);
+    }
+
+    @Override
+    public CartDto addItem(long userId, long productId, int quantity) {
+        return cartStore.add(userId, productId, quantity) ? getCart(userId) : null;
+    }
+
+    @Override
+    public CartDto setItem(long userId, long productId, int quantity) {
+        return cartStore.set(userId, productId, quantity) ? getCart(userId) : null;
+    }
+
+    @Override
+    public CartDto removeItem(long userId, long productId) {
+        cartStore.remove(userId, productId);
+        return getCart(userId);
+    }
+
+    @Override
+    public void clear(long userId) {
+        cartStore.clear(userId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.jaky.ecomerce.eshop.service;
+
+import java.nio.file.Path;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/05/2023, 7:40 PM
+ **/
+public interface ImageService {
+    /**
+     * Returns the file of a product image.
+     *
+     * @param name image file name, without directories.
+     * @return path of the image, or null if there is no such image.
+     */
+    Path getImage(String name);
+
+    /**
+     * Returns the thumbnail of a product image for the given width. The width is rounded up to the next
+     * configured thumbnail width, the original image is returned if the width is larger than all of them.
+     *
+     * @param name  image file name, without directories.
+     * @param width requested width in pixels.
+     * @return path of the thumbnail, or null if it is not generated yet or there is no such image.
+     */
+    Path getThumbnail(String name, int width);
+
+    /**
+     * Generate missing or outdated thumbnails of a product image in the background.
+     *
+     * @param name image file name, without directories.
+     */
+    void generateThumbnails(String name);
+
+    /**
+     * Generate missing or outdated thumbnails of all product images in the background.
+     */
+    void generateAllThumbnails();
+}
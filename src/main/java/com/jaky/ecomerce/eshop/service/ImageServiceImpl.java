@@ -0,0 +1,192 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Thumbnails are generated on the task executor and written to a disk cache, so requests only read files.
+ * A thumbnail is outdated when its image file is newer.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/05/2023, 7:50 PM
+ **/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageServiceImpl implements ImageService {
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Images whose thumbnails are being generated.
+     */
+    private final Set<String> generating = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Path getImage(String name) {
+        return resolve(imageDirectory(), name);
+    }
+
+    @Override
+    public Path getThumbnail(String name, int width) {
+        Path image = getImage(name);
+
+        if (image == null) {
+            return null;
+        }
+        Integer thumbnailWidth = thumbnailWidths().stream()
+                .filter(w -> w >= width)
+                .min(Integer::compare)
+                .orElse(null);
+
+        if (thumbnailWidth == null) {
+            return image;
+        }
+        Path thumbnail = resolve(thumbnailDirectory().resolve(String.valueOf(thumbnailWidth)), name);
+        return thumbnail != null && isFresh(thumbnail, image) ? thumbnail : null;
+    }
+
+    @Override
+    @Async
+    public void generateThumbnails(String name) {
+        Path image = getImage(name);
+
+        if (image == null || !generating.add(name)) {
+            return;
+        }
+        try {
+            BufferedImage source = null;
+
+            for (int width : thumbnailWidths()) {
+                Path thumbnail = thumbnailDirectory().resolve(String.valueOf(width)).resolve(image.getFileName());
+
+                if (isFresh(thumbnail, image)) {
+                    continue;
+                }
+                if (source == null) {
+                    source = ImageIO.read(image.toFile());
+                }
+                write(image, source, width, thumbnail);
+            }
+        } catch (IOException | RuntimeException exception) {
+            log.warn("Failed to generate thumbnails of image {}", name, exception);
+        } finally {
+            generating.remove(name);
+        }
+    }
+
+    @Override
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateAllThumbnails() {
+        Path directory = imageDirectory();
+
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .forEach(this::generateThumbnails);
+        } catch (IOException exception) {
+            log.warn("Failed to list images in {}", directory, exception);
+        }
+    }
+
+    /**
+     * Write the image scaled to the width. Images which are not wider or cannot be decoded are copied.
+     * The thumbnail is written to a temporary file first, so a request never reads a partial file.
+     */
+    private static void write(Path image, BufferedImage source, int width, Path thumbnail) throws IOException {
+        Files.createDirectories(thumbnail.getParent());
+        Path temporary = Files.createTempFile(thumbnail.getParent(), "thumbnail", ".tmp");
+
+        try {
+            String format = format(image);
+
+            if (source == null || source.getWidth() <= width || !ImageIO.write(scale(source, width, format), format,
+                    temporary.toFile())) {
+                Files.copy(image, temporary, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temporary, thumbnail, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, String format) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        boolean opaque = format.equals("jpg") || format.equals("jpeg") || format.equals("bmp");
+        BufferedImage thumbnail = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    private static String format(Path image) {
+        String name = image.getFileName().toString();
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isFresh(Path thumbnail, Path image) {
+        try {
+            return Files.isRegularFile(thumbnail)
+                    && Files.getLastModifiedTime(thumbnail).compareTo(Files.getLastModifiedTime(image)) >= 0;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the file with the given name in the directory, or null if it does not exist or the name
+     * points outside the directory.
+     */
+    private static Path resolve(Path directory, String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        Path file = directory.resolve(name).normalize();
+        return file.getParent() != null && file.getParent().equals(directory) && Files.isRegularFile(file)
+                ? file
+                : null;
+    }
+
+    private Path imageDirectory() {
+        return Paths.get(applicationProperties.getImages().getDirectory()).toAbsolutePath().normalize();
+    }
+
+    private Path thumbnailDirectory() {
+        return Paths.get(applicationProperties.getImages().getThumbnailDirectory()).toAbsolutePath().normalize();
+    }
+
+    private List<Integer> thumbnailWidths() {
+        return applicationProperties.getImages().getThumbnailWidths();
+    }
+}
@@ -0,0 +1,195 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.model.OutboxMessage;
+import com.jaky.ecomerce.eshop.model.OutboxStatus;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.repository.OutboxMessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers emails from the outbox table in batches.
+ * A batch is claimed in a short transaction, sent without holding a database connection or row locks,
+ * and its outcome is recorded in a second transaction.
+ * A failed message is retried with exponential backoff until the maximum number of attempts.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/22/2023, 8:20 PM
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailOutboxDispatcher {
+    /**
+     * Maximum stored length of a delivery error.
+     */
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    /**
+     * Statuses of messages which may be claimed once due: pending ones and those whose claim has expired.
+     */
+    private static final List<OutboxStatus> CLAIMABLE_STATUSES = List.of(OutboxStatus.PENDING, OutboxStatus.SENDING);
+
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    /**
+     * Sends a batch over one connection to the mail server.
+     */
+    private final JavaMailSender mailSender;
+
+    /**
+     * Transactions of claiming a batch and of recording its outcome, the mail server is called outside of them.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Send due messages one batch at a time, until none is left or the batch limit of a run is reached.
+     * The limit keeps a backlog or a slow mail server from holding a scheduler thread for long,
+     * the remaining messages are sent by the next runs.
+     */
+    @Scheduled(fixedDelayString = "${application.mail.dispatch-interval}")
+    public void dispatch() {
+        int maxBatches = applicationProperties.getMail().getMaxBatchesPerRun();
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            if (!dispatchBatch()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claim, send and record one batch of due messages, sent over one connection to the mail server.
+     *
+     * @return true if the batch was full and more messages may be due.
+     */
+    private boolean dispatchBatch() {
+        ApplicationProperties.Mail settings = applicationProperties.getMail();
+        List<OutboxMessage> messages = transactionTemplate.execute(status -> claim(settings));
+
+        if (messages == null || messages.isEmpty()) {
+            return false;
+        }
+        SimpleMailMessage[] mailMessages = new SimpleMailMessage[messages.size()];
+
+        for (int i = 0; i < messages.size(); i++) {
+            OutboxMessage message = messages.get(i);
+            SimpleMailMessage mailMessage = new SimpleMailMessage();
+            mailMessage.setFrom(settings.getFrom());
+            mailMessage.setTo(message.getRecipient());
+            mailMessage.setSubject(message.getSubject());
+            mailMessage.setText(message.getBody());
+            mailMessages[i] = mailMessage;
+        }
+        Map<Object, Exception> failedMessages = Collections.emptyMap();
+        MailException batchError = null;
+
+        try {
+            mailSender.send(mailMessages);
+        } catch (MailSendException exception) {
+            failedMessages = exception.getFailedMessages();
+
+            if (failedMessages.isEmpty()) {
+                batchError = exception;
+            }
+        } catch (MailException exception) {
+            batchError = exception;
+        }
+        Map<Long, Exception> errors = new HashMap<>();
+
+        for (int i = 0; i < messages.size(); i++) {
+            Exception error = batchError != null ? batchError : failedMessages.get(mailMessages[i]);
+
+            if (error != null) {
+                errors.put(messages.get(i).getId(), error);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> record(messages, errors, settings));
+        return messages.size() == settings.getBatchSize() && batchError == null;
+    }
+
+    /**
+     * Lock due messages, skipping those locked by other instances, and mark them as being sent
+     * until the lease expires.
+     *
+     * @return claimed messages.
+     */
+    private List<OutboxMessage> claim(ApplicationProperties.Mail settings) {
+        Instant now = Instant.now();
+        Instant leaseExpiry = now.plus(settings.getLease()).truncatedTo(ChronoUnit.MILLIS);
+        List<OutboxMessage> messages = outboxMessageRepository.findDue(CLAIMABLE_STATUSES, now,
+                PageRequest.of(0, settings.getBatchSize()));
+
+        for (OutboxMessage message : messages) {
+            message.setStatus(OutboxStatus.SENDING);
+            message.setNextAttemptAt(leaseExpiry);
+        }
+        return messages;
+    }
+
+    /**
+     * Mark the sent messages as delivered and reschedule the failed ones.
+     * A message whose lease has expired and which was claimed again by another dispatcher is left alone.
+     */
+    private void record(List<OutboxMessage> claimed, Map<Long, Exception> errors, ApplicationProperties.Mail settings) {
+        Map<Long, Instant> leases = new HashMap<>();
+
+        for (OutboxMessage message : claimed) {
+            leases.put(message.getId(), message.getNextAttemptAt());
+        }
+        Instant now = Instant.now();
+
+        for (OutboxMessage message : outboxMessageRepository.findAllById(new ArrayList<>(leases.keySet()))) {
+            if (message.getStatus() != OutboxStatus.SENDING
+                    || !message.getNextAttemptAt().equals(leases.get(message.getId()))) {
+                log.warn("Email {} was claimed again before its outcome was recorded", message.getId());
+                continue;
+            }
+            Exception error = errors.get(message.getId());
+
+            if (error == null) {
+                message.setStatus(OutboxStatus.SENT);
+            } else {
+                scheduleRetry(message, error, now, settings);
+            }
+        }
+    }
+
+    private void scheduleRetry(OutboxMessage message, Exception error, Instant now, ApplicationProperties.Mail settings) {
+        int attempts = message.getAttempts() + 1;
+        String errorMessage = String.valueOf(error.getMessage());
+
+        message.setAttempts(attempts);
+        message.setLastError(errorMessage.length() > MAX_ERROR_LENGTH
+                ? errorMessage.substring(0, MAX_ERROR_LENGTH) : errorMessage);
+
+        if (attempts >= settings.getMaxAttempts()) {
+            message.setStatus(OutboxStatus.FAILED);
+            log.warn("Email {} to {} failed after {} attempts: {}", message.getId(), message.getRecipient(),
+                    attempts, errorMessage);
+        } else {
+            Duration delay = settings.getRetryDelay().multipliedBy(1L << Math.min(attempts - 1, 16));
+            message.setStatus(OutboxStatus.PENDING);
+            message.setNextAttemptAt(now.plus(delay));
+        }
+    }
+}
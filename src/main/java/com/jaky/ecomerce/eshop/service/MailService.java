@@ -0,0 +1,25 @@
+package com.jaky.ecomerce.eshop.service;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/22/2023, 8:00 PM
+ **/
+public interface MailService {
+    /**
+     * Queue email with the activation link.
+     * Must be called in the transaction which saves the activation code.
+     *
+     * @param email          user email.
+     * @param activationCode activation code.
+     */
+    void sendActivationCode(String email, String activationCode);
+
+    /**
+     * Queue email with the password reset link.
+     * Must be called in the transaction which saves the password reset code.
+     *
+     * @param email             user email.
+     * @param passwordResetCode password reset code.
+     */
+    void sendPasswordResetCode(String email, String passwordResetCode);
+}
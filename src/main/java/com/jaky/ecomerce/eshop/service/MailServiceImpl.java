@@ -0,0 +1,70 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.model.OutboxMessage;
+import com.jaky.ecomerce.eshop.model.OutboxStatus;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.repository.OutboxMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Writes emails to the outbox table. Delivery is done by {@link MailOutboxDispatcher},
+ * so the request never waits for the mail server.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/22/2023, 8:05 PM
+ **/
+@Service
+@RequiredArgsConstructor
+public class MailServiceImpl implements MailService {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Queue email with the activation link.
+     * Must be called in the transaction which saves the activation code.
+     *
+     * @param email          user email.
+     * @param activationCode activation code.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sendActivationCode(String email, String activationCode) {
+        enqueue(email, "Activation code",
+                "Welcome to eshop! Please activate your account: "
+                        + applicationProperties.getMail().getActivationUrl() + activationCode);
+    }
+
+    /**
+     * Queue email with the password reset link.
+     * Must be called in the transaction which saves the password reset code.
+     *
+     * @param email             user email.
+     * @param passwordResetCode password reset code.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sendPasswordResetCode(String email, String passwordResetCode) {
+        enqueue(email, "Password reset",
+                "To reset your password follow the link: "
+                        + applicationProperties.getMail().getPasswordResetUrl() + passwordResetCode);
+    }
+
+    private void enqueue(String recipient, String subject, String body) {
+        Instant now = Instant.now();
+        OutboxMessage message = new OutboxMessage();
+        message.setRecipient(recipient);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setStatus(OutboxStatus.PENDING);
+        message.setNextAttemptAt(now);
+        message.setCreatedAt(now);
+        outboxMessageRepository.save(message);
+    }
+}
@@ -0,0 +1,38 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.dto.OrderDto;
+import com.jaky.ecomerce.eshop.order.OutOfStockException;
+
+import java.util.List;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 5:00 PM
+ **/
+public interface OrderService {
+    /**
+     * Place an order with the products in the cart of the user and remove them from the cart.
+     *
+     * @param userId user id.
+     * @return placed order, or null if the cart is empty.
+     * @throws OutOfStockException if a product has not enough stock, no stock is reserved then.
+     */
+    OrderDto placeOrder(long userId) throws OutOfStockException;
+
+    /**
+     * Returns the orders of the user, newest first.
+     *
+     * @param userId user id.
+     * @return list of {@link OrderDto}.
+     */
+    List<OrderDto> findAll(long userId);
+
+    /**
+     * Returns the order of the user.
+     *
+     * @param userId user id.
+     * @param id     order id.
+     * @return The {@link OrderDto} class object, or null if the user has no such order.
+     */
+    OrderDto findById(long userId, long id);
+}
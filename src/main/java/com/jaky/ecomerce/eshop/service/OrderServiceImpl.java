@@ -0,0 +1,117 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.cart.CartStore;
+import com.jaky.ecomerce.eshop.catalog.ProductCatalog;
+import com.jaky.ecomerce.eshop.dto.OrderDto;
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import com.jaky.ecomerce.eshop.model.Order;
+import com.jaky.ecomerce.eshop.model.OrderItem;
+import com.jaky.ecomerce.eshop.order.OutOfStockException;
+import com.jaky.ecomerce.eshop.order.StockReservationBatcher;
+import com.jaky.ecomerce.eshop.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock is reserved before the order is written, each reservation in its own short statement,
+ * so no row lock of a product is held while the order is saved. If a reservation or the order
+ * fails, the stock already reserved for the order is released again.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/02/2023, 5:10 PM
+ **/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderServiceImpl implements OrderService {
+    private final OrderRepository orderRepository;
+
+    private final CartStore cartStore;
+
+    private final ProductCatalog productCatalog;
+
+    private final StockReservationBatcher stockReservationBatcher;
+
+    /**
+     * Saves the order in a transaction of its own, after the stock has been reserved.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public OrderDto placeOrder(long userId) throws OutOfStockException {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setCreatedAt(Instant.now());
+        long totalPrice = 0;
+
+        for (Map.Entry<Long, Integer> cartItem : new TreeMap<>(cartStore.getItems(userId)).entrySet()) {
+            ProductDto product = productCatalog.get(cartItem.getKey());
+
+            if (product == null) {
+                continue;
+            }
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId());
+            item.setProductName(product.getName());
+            item.setPrice(product.getPrice());
+            item.setQuantity(cartItem.getValue());
+            order.addItem(item);
+            totalPrice += (long) product.getPrice() * cartItem.getValue();
+        }
+        if (order.getItems().isEmpty()) {
+            return null;
+        }
+        order.setTotalPrice(totalPrice);
+        List<OrderItem> reserved = new ArrayList<>(order.getItems().size());
+
+        try {
+            for (OrderItem item : order.getItems()) {
+                if (!stockReservationBatcher.reserve(item.getProductId(), item.getQuantity())) {
+                    throw new OutOfStockException(item.getProductId());
+                }
+                reserved.add(item);
+            }
+            Order savedOrder = transactionTemplate.execute(status -> orderRepository.save(order));
+            order.getItems().forEach(item -> cartStore.remove(userId, item.getProductId()));
+            return OrderDto.from(savedOrder);
+        } catch (RuntimeException exception) {
+            release(reserved);
+            throw exception;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderDto> findAll(long userId) {
+        return orderRepository.findByUserIdOrderByIdDesc(userId).stream()
+                .map(OrderDto::from)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderDto findById(long userId, long id) {
+        Order order = orderRepository.findByIdAndUserId(id, userId);
+        return order == null ? null : OrderDto.from(order);
+    }
+
+    private void release(List<OrderItem> reserved) {
+        for (OrderItem item : reserved) {
+            try {
+                stockReservationBatcher.release(item.getProductId(), item.getQuantity());
+            } catch (RuntimeException exception) {
+                log.error("Failed to release {} pieces of product {}", item.getQuantity(), item.getProductId(),
+                        exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import com.jaky.ecomerce.eshop.dto.ProductFilterDto;
+import com.jaky.ecomerce.eshop.dto.ProductPageDto;
+import com.jaky.ecomerce.eshop.model.Product;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Map;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 3:40 PM
+ **/
+public interface ProductService {
+    /**
+     * Returns the product with the given id.
+     *
+     * @param id product id.
+     * @return The {@link ProductDto} class object, or null if there is no such product.
+     */
+    ProductDto findById(long id);
+
+    /**
+     * Returns the products matching the filter with brand, category and price counts of all matching products.
+     *
+     * @param filter brand, category and price filter.
+     * @param page   page number, starting from 0.
+     * @param size   page size.
+     * @return page of products.
+     */
+    ProductPageDto findAll(ProductFilterDto filter, int page, int size);
+
+    /**
+     * Returns the products whose name or description contains all words of the query and matching the filter,
+     * with brand, category and price counts of all matching products.
+     *
+     * @param query  search words, all products match a query without words.
+     * @param filter brand, category and price filter.
+     * @param page   page number, starting from 0.
+     * @param size   page size.
+     * @return page of products.
+     */
+    ProductPageDto search(String query, ProductFilterDto filter, int page, int size);
+
+    /**
+     * Returns the number of products by brand, category and price range.
+     *
+     * @return facet name mapped to product count by facet value.
+     */
+    Map<String, Map<String, Integer>> getFacets();
+
+    /**
+     * Save product info.
+     *
+     * @param product product to save.
+     * @return The {@link Product} class object which will be saved in the database.
+     */
+    Product save(Product product);
+
+    /**
+     * Update the product with the given id.
+     *
+     * @param id      product id.
+     * @param product new product values, with the version read by the client if it has one.
+     * @return The {@link Product} class object which will be saved in the database, or null if there is
+     * no such product.
+     * @throws ObjectOptimisticLockingFailureException if the product was changed since the given version.
+     */
+    Product update(long id, Product product) throws ObjectOptimisticLockingFailureException;
+
+    /**
+     * Delete the product with the given id.
+     *
+     * @param id product id.
+     * @return true if the product existed.
+     */
+    boolean delete(long id);
+}
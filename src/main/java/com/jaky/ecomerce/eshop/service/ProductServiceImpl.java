@@ -0,0 +1,114 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.catalog.ProductCatalog;
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import com.jaky.ecomerce.eshop.dto.ProductFilterDto;
+import com.jaky.ecomerce.eshop.dto.ProductPageDto;
+import com.jaky.ecomerce.eshop.model.Product;
+import com.jaky.ecomerce.eshop.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads are served by the {@link ProductCatalog}, writes go to the database and are applied
+ * to the catalog after their commit.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/25/2023, 3:45 PM
+ **/
+@Service
+@RequiredArgsConstructor
+public class ProductServiceImpl implements ProductService {
+    private final ProductRepository productRepository;
+
+    private final ProductCatalog productCatalog;
+
+    /**
+     * Commits a product change before the catalog and the thumbnails are updated.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    private final ImageService imageService;
+
+    @Override
+    public ProductDto findById(long id) {
+        return productCatalog.get(id);
+    }
+
+    @Override
+    public ProductPageDto findAll(ProductFilterDto filter, int page, int size) {
+        return productCatalog.filter(filter, page, size);
+    }
+
+    @Override
+    public ProductPageDto search(String query, ProductFilterDto filter, int page, int size) {
+        return productCatalog.search(query, filter, page, size);
+    }
+
+    @Override
+    public Map<String, Map<String, Integer>> getFacets() {
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("brands", productCatalog.getBrands());
+        facets.put("categories", productCatalog.getCategories());
+        facets.put("prices", productCatalog.getPrices());
+        return facets;
+    }
+
+    @Override
+    public Product save(Product product) {
+        Product savedProduct = productRepository.save(product);
+        productCatalog.update(savedProduct);
+        generateThumbnails(savedProduct);
+        return savedProduct;
+    }
+
+    @Override
+    public Product update(long id, Product product) throws ObjectOptimisticLockingFailureException {
+        Product savedProduct = transactionTemplate.execute(status -> {
+            Product productFromDb = productRepository.findById(id).orElse(null);
+
+            if (productFromDb == null) {
+                return null;
+            }
+            if (product.getVersion() != null && !product.getVersion().equals(productFromDb.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Product.class, id);
+            }
+            productFromDb.setName(product.getName());
+            productFromDb.setDescription(product.getDescription());
+            productFromDb.setBrand(product.getBrand());
+            productFromDb.setCategory(product.getCategory());
+            productFromDb.setPrice(product.getPrice());
+            productFromDb.setImageFile(product.getImageFile());
+            productFromDb.setStock(product.getStock());
+            return productRepository.saveAndFlush(productFromDb);
+        });
+
+        if (savedProduct != null) {
+            productCatalog.update(savedProduct);
+            generateThumbnails(savedProduct);
+        }
+        return savedProduct;
+    }
+
+    @Override
+    public boolean delete(long id) {
+        if (!productRepository.existsById(id)) {
+            return false;
+        }
+        productRepository.deleteById(id);
+        productCatalog.remove(id);
+        return true;
+    }
+
+    private void generateThumbnails(Product product) {
+        if (StringUtils.hasText(product.getImageFile())) {
+            imageService.generateThumbnails(product.getImageFile());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.dto.TokenRefreshDto;
+import com.jaky.ecomerce.eshop.security.JwtAuthenticationException;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 12/10/2023, 4:20 PM
+ **/
+public interface RefreshTokenService {
+    /**
+     * Issue a refresh token of a new family after login.
+     *
+     * @param user authenticated user.
+     * @return opaque refresh token.
+     */
+    String create(UserPrincipal user);
+
+    /**
+     * Exchange a refresh token for a new one of the same family.
+     * Presenting a token which was already exchanged revokes the whole family.
+     *
+     * @param refreshToken opaque refresh token.
+     * @return current user and new refresh token.
+     * @throws JwtAuthenticationException if the token is unknown, expired, revoked or reused, or the user
+     *                                    credentials changed since it was issued.
+     */
+    TokenRefreshDto rotate(String refreshToken) throws JwtAuthenticationException;
+
+    /**
+     * Revoke the family of a refresh token.
+     *
+     * @param refreshToken opaque refresh token.
+     */
+    void revoke(String refreshToken);
+
+    /**
+     * Revoke all refresh tokens of a user.
+     *
+     * @param userId user id.
+     */
+    void revokeAll(long userId);
+}
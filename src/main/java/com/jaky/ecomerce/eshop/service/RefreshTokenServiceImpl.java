@@ -0,0 +1,179 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.dto.TokenRefreshDto;
+import com.jaky.ecomerce.eshop.model.RefreshToken;
+import com.jaky.ecomerce.eshop.repository.RefreshTokenRepository;
+import com.jaky.ecomerce.eshop.security.JwtAuthenticationException;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh tokens are random values known only to the client, the database stores their hashes.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 12/10/2023, 4:30 PM
+ **/
+@Slf4j
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+    /**
+     * Number of random bytes of a refresh token.
+     */
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserDetailsService userDetailsService;
+
+    /**
+     * Marks the presented token used and stores its successor in one transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * Validity of a refresh token in seconds.
+     */
+    @Value("${jwt.refresh-expiration}")
+    private long refreshValidityInSeconds;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   @Qualifier("userDetailsServiceImpl") UserDetailsService userDetailsService,
+                                   TransactionTemplate transactionTemplate) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userDetailsService = userDetailsService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public String create(UserPrincipal user) {
+        String token = generateToken();
+        refreshTokenRepository.save(newToken(token, UUID.randomUUID().toString(), user));
+        return token;
+    }
+
+    @Override
+    public TokenRefreshDto rotate(String refreshToken) throws JwtAuthenticationException {
+        RefreshToken stored = refreshToken == null ? null : refreshTokenRepository.findByTokenHash(hash(refreshToken));
+        Instant now = Instant.now();
+
+        if (stored == null || stored.isRevoked() || !stored.getExpiresAt().isAfter(now)) {
+            throw invalid();
+        }
+        if (stored.getUsedAt() != null) {
+            throw reused(stored);
+        }
+        UserPrincipal user;
+
+        try {
+            user = (UserPrincipal) userDetailsService.loadUserByUsername(stored.getEmail());
+        } catch (AuthenticationException exception) {
+            throw invalid();
+        }
+        if (!user.getId().equals(stored.getUserId()) || user.getTokenVersion() != stored.getTokenVersion()
+                || !user.isEnabled()) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            throw invalid();
+        }
+        String token = generateToken();
+        Boolean rotated = transactionTemplate.execute(status -> {
+            if (refreshTokenRepository.markUsed(stored.getId(), now) == 0) {
+                return false;
+            }
+            refreshTokenRepository.save(newToken(token, stored.getFamilyId(), user));
+            return true;
+        });
+
+        if (!Boolean.TRUE.equals(rotated)) {
+            RefreshToken current = refreshTokenRepository.findById(stored.getId()).orElse(null);
+
+            // Revoked by a logout or a reuse detected since the token was read, nothing was issued.
+            if (current == null || current.getUsedAt() == null) {
+                throw invalid();
+            }
+            throw reused(stored);
+        }
+        return new TokenRefreshDto(user, token);
+    }
+
+    @Override
+    public void revoke(String refreshToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(refreshToken));
+
+        if (stored != null) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId());
+        }
+    }
+
+    @Override
+    public void revokeAll(long userId) {
+        refreshTokenRepository.revokeByUserId(userId);
+    }
+
+    /**
+     * Delete expired refresh tokens.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void deleteExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private RefreshToken newToken(String token, String familyId, UserPrincipal user) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUserId(user.getId());
+        refreshToken.setEmail(user.getEmail());
+        refreshToken.setTokenVersion(user.getTokenVersion());
+        refreshToken.setExpiresAt(Instant.now().plusSeconds(refreshValidityInSeconds));
+        return refreshToken;
+    }
+
+    /**
+     * A used token was presented again, so it was copied. Revoke the family, which logs out
+     * both the client and whoever copied the token.
+     */
+    private JwtAuthenticationException reused(RefreshToken stored) {
+        log.warn("Reuse of refresh token family {} of user {}, revoking the family", stored.getFamilyId(),
+                stored.getUserId());
+        refreshTokenRepository.revokeFamily(stored.getFamilyId());
+        return invalid();
+    }
+
+    private static JwtAuthenticationException invalid() {
+        return new JwtAuthenticationException("Refresh token is expired or invalid", HttpStatus.UNAUTHORIZED);
+    }
+
+    private String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.dto.UserImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author : Jaiky Nguyen
+ * @since : 11/20/2023, 8:15 PM
+ **/
+public interface UserImportService {
+    /**
+     * Import users from newline delimited JSON, one object with username, email and password per line.
+     *
+     * @param inputStream stream with the users.
+     * @return number of imported and skipped users.
+     * @throws IOException if reading fails.
+     */
+    UserImportResultDto importJson(InputStream inputStream) throws IOException;
+
+    /**
+     * Import users from CSV with "username,email,password" header. Values must not contain commas.
+     *
+     * @param inputStream stream with the users.
+     * @return number of imported and skipped users.
+     * @throws IOException if reading fails.
+     */
+    UserImportResultDto importCsv(InputStream inputStream) throws IOException;
+}
@@ -0,0 +1,207 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaky.ecomerce.eshop.dto.UserImportDto;
+import com.jaky.ecomerce.eshop.dto.UserImportResultDto;
+import com.jaky.ecomerce.eshop.model.Role;
+import com.jaky.ecomerce.eshop.model.User;
+import com.jaky.ecomerce.eshop.repository.UserRepository;
+import com.jaky.ecomerce.eshop.security.OffloadingPasswordEncoder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Imports users in chunks: one query finds the already registered emails of a chunk,
+ * the passwords are hashed in parallel and the users are inserted with JDBC batches.
+ * Emails are trimmed and otherwise stored as given, like on registration, because lookups, login and
+ * the unique index compare them exactly. Duplicates within a chunk are dropped in memory,
+ * duplicates of earlier chunks are found by the query, as those chunks are already committed.
+ *
+ * @author : Jaiky Nguyen
+ * @since : 11/20/2023, 8:20 PM
+ **/
+@Service
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+    /**
+     * Number of users inserted in one transaction.
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    private final UserRepository userRepository;
+
+    private final OffloadingPasswordEncoder passwordEncoder;
+
+    /**
+     * One transaction per chunk of imported users, or per user when a chunk hits a duplicate.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Reads the users of a JSON lines import.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Import users from newline delimited JSON, one object with username, email and password per line.
+     *
+     * @param inputStream stream with the users.
+     * @return number of imported and skipped users.
+     * @throws IOException if reading fails.
+     */
+    @Override
+    public UserImportResultDto importJson(InputStream inputStream) throws IOException {
+        return importLines(inputStream, false, line -> {
+            try {
+                return objectMapper.readValue(line, UserImportDto.class);
+            } catch (JsonProcessingException exception) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Import users from CSV with "username,email,password" header. Values must not contain commas.
+     *
+     * @param inputStream stream with the users.
+     * @return number of imported and skipped users.
+     * @throws IOException if reading fails.
+     */
+    @Override
+    public UserImportResultDto importCsv(InputStream inputStream) throws IOException {
+        return importLines(inputStream, true, line -> {
+            String[] values = line.split(",", -1);
+
+            if (values.length != 3) {
+                return null;
+            }
+            UserImportDto user = new UserImportDto();
+            user.setUsername(values[0].trim());
+            user.setEmail(values[1].trim());
+            user.setPassword(values[2]);
+            return user;
+        });
+    }
+
+    private UserImportResultDto importLines(InputStream inputStream, boolean skipHeader,
+                                            Function<String, UserImportDto> parser) throws IOException {
+        long start = System.nanoTime();
+        UserImportResultDto result = new UserImportResultDto();
+        Map<String, UserImportDto> chunk = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+
+            if (skipHeader) {
+                reader.readLine();
+            }
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                UserImportDto user = parser.apply(line);
+
+                if (!isValid(user)) {
+                    result.setInvalid(result.getInvalid() + 1);
+                    continue;
+                }
+                user.setEmail(user.getEmail().trim());
+
+                if (chunk.putIfAbsent(user.getEmail(), user) != null) {
+                    result.setDuplicates(result.getDuplicates() + 1);
+                } else if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, result);
+                }
+            }
+        }
+        importChunk(chunk, result);
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : result.getImported() * 1e9 / elapsedNanos);
+        return result;
+    }
+
+    private void importChunk(Map<String, UserImportDto> chunk, UserImportResultDto result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> existingEmails = userRepository.findExistingEmails(chunk.keySet());
+        result.setDuplicates(result.getDuplicates() + existingEmails.size());
+        chunk.keySet().removeAll(existingEmails);
+
+        List<UserImportDto> newUsers = new ArrayList<>(chunk.values());
+        List<String> passwords = new ArrayList<>(newUsers.size());
+
+        for (UserImportDto user : newUsers) {
+            passwords.add(user.getPassword());
+        }
+        List<String> encodedPasswords = passwordEncoder.encodeAll(passwords);
+        List<User> users = new ArrayList<>(newUsers.size());
+
+        for (int i = 0; i < newUsers.size(); i++) {
+            User user = new User();
+            user.setUsername(newUsers.get(i).getUsername());
+            user.setEmail(newUsers.get(i).getEmail());
+            user.setPassword(encodedPasswords.get(i));
+            user.setActive(true);
+            user.setRoles(EnumSet.of(Role.USER));
+            users.add(user);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+            result.setImported(result.getImported() + users.size());
+        } catch (DataIntegrityViolationException exception) {
+            saveOneByOne(users, result);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Save the users of a chunk which failed on a unique email, registered after the chunk was checked,
+     * one by one and count the failing ones as duplicates.
+     */
+    private void saveOneByOne(List<User> users, UserImportResultDto result) {
+        for (User user : users) {
+            user.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.save(user));
+                result.setImported(result.getImported() + 1);
+            } catch (DataIntegrityViolationException exception) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            }
+        }
+    }
+
+    private static boolean isValid(UserImportDto user) {
+        return user != null
+                && StringUtils.hasText(user.getUsername())
+                && StringUtils.hasText(user.getPassword())
+                && isEmail(user.getEmail());
+    }
+
+    private static boolean isEmail(String value) {
+        if (value == null) {
+            return false;
+        }
+        String email = value.trim();
+        int at = email.indexOf('@');
+        return at > 0 && at < email.length() - 1;
+    }
+}
@@ -1,8 +1,13 @@
 package com.jaky.ecomerce.eshop.service;
 
 import com.jaky.ecomerce.eshop.dto.PasswordResetDto;
+import com.jaky.ecomerce.eshop.dto.UserSummaryDto;
 import com.jaky.ecomerce.eshop.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +39,31 @@ public interface UserService {
      */
     List<User> findAll();
 
+    /**
+     * Return page of registered users with their roles.
+     *
+     * @param pageable page number, size and sorting.
+     * @return page of {@link UserSummaryDto}.
+     */
+    Page<UserSummaryDto> findAll(Pageable pageable);
+
+    /**
+     * Return registered users with id greater than the given one, in id order.
+     *
+     * @param afterId id of the last user of the previous page.
+     * @param size    maximum number of users.
+     * @return list of {@link UserSummaryDto}.
+     */
+    List<UserSummaryDto> findAllAfter(Long afterId, int size);
+
+    /**
+     * Write all registered users as JSON array, reading them with a database cursor.
+     *
+     * @param outputStream stream to write to.
+     * @throws IOException if writing fails.
+     */
+    void exportAll(OutputStream outputStream) throws IOException;
+
     /**
      * Returns the user with the same name as the value of the input parameter.
      *
@@ -115,4 +145,10 @@ public interface UserService {
      */
     void updateProfile(User user, String password, String email);
 
-}
\ No newline at end of file
+    /**
+     * Revoke all tokens issued to the user.
+     *
+     * @param email user email.
+     */
+    void revokeTokens(String email);
+}
@@ -1,19 +1,40 @@
 package com.jaky.ecomerce.eshop.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jaky.ecomerce.eshop.cache.TtlCache;
 import com.jaky.ecomerce.eshop.dto.PasswordResetDto;
+import com.jaky.ecomerce.eshop.dto.UserCredentialsDto;
+import com.jaky.ecomerce.eshop.dto.UserSummaryDto;
 import com.jaky.ecomerce.eshop.model.Role;
 import com.jaky.ecomerce.eshop.model.User;
+import com.jaky.ecomerce.eshop.repository.UserExportRepository;
 import com.jaky.ecomerce.eshop.repository.UserRepository;
+import com.jaky.ecomerce.eshop.security.TokenVersionRegistry;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,15 +44,49 @@ import java.util.stream.Collectors;
  **/
 @Service("userDetailsServiceImpl")
 @RequiredArgsConstructor
-public class UserServiceImpl implements UserDetailsService, UserService {
+public class UserServiceImpl implements UserDetailsService, UserDetailsPasswordService, UserService {
     /**
      * Implementation of the {@link UserRepository} interface
      * for working with users with a database.
      */
     private final UserRepository userRepository;
 
+    /**
+     * Cursor based reading of all users.
+     */
+    private final UserExportRepository userExportRepository;
+
+    /**
+     * Writes the streamed user export as JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Queues emails in the transaction of the user change.
+     */
+    private final MailService mailService;
+
+    /**
+     * Short transactions around the writes only, so password hashing runs outside of them.
+     */
+    private final TransactionTemplate transactionTemplate;
+
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * Credentials changes which revoke already issued tokens.
+     */
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    /**
+     * Authenticated users by email. Every method changing a user invalidates its entry.
+     */
+    private final TtlCache<String, UserPrincipal> userCache;
+
+    /**
+     * Registry of the user lookup timer of authentication, tagged by result.
+     */
+    private final MeterRegistry meterRegistry;
 
     /**
      * Retrieves an User by its id.
@@ -65,6 +120,58 @@ public class UserServiceImpl implements UserDetailsService, UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Return page of registered users with their roles.
+     *
+     * @param pageable page number, size and sorting.
+     * @return page of {@link UserSummaryDto}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserSummaryDto> findAll(Pageable pageable) {
+        return userRepository.findSummaries(pageable);
+    }
+
+    /**
+     * Return registered users with id greater than the given one, in id order.
+     *
+     * @param afterId id of the last user of the previous page.
+     * @param size    maximum number of users.
+     * @return list of {@link UserSummaryDto}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSummaryDto> findAllAfter(Long afterId, int size) {
+        return userRepository.findSummariesAfter(afterId, PageRequest.of(0, size));
+    }
+
+    /**
+     * Write all registered users as JSON array, reading them with a database cursor.
+     *
+     * @param outputStream stream to write to.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            userExportRepository.forEach(user -> {
+                try {
+                    writer.writeValue(generator, user);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
     /**
      * Returns the user with the same name as the value of the input parameter.
      *
@@ -106,23 +213,73 @@ public class UserServiceImpl implements UserDetailsService, UserService {
      */
     @Override
     public User save(User user) {
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userCache.invalidate(user.getEmail());
+        return savedUser;
     }
 
 
+    /**
+     * Load user for authentication by email.
+     * Only the columns needed for authentication are read, into an immutable {@link UserPrincipal}
+     * which is cached until the user is changed.
+     *
+     * @param email user email.
+     * @return authenticated user.
+     * @throws UsernameNotFoundException if the user is not found.
+     * @throws LockedException           if the user email is not activated.
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException, LockedException {
-        User user = userRepository.findByEmail(email);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "error";
+
+        try {
+            UserPrincipal user = userCache.get(email, this::loadPrincipal);
 
-        if (user == null) {
-            throw new UsernameNotFoundException("User not found");
+            if (user == null) {
+                result = "not_found";
+                throw new UsernameNotFoundException("User not found");
+            }
+            result = "found";
+            return user;
+        } finally {
+            sample.stop(meterRegistry.timer("eshop.auth.user.load", "result", result));
         }
+    }
+
+    private UserPrincipal loadPrincipal(String email) {
+        UserCredentialsDto credentials = userRepository.findCredentialsByEmail(email);
 
-        if (user.getActivationCode() != null) {
+        if (credentials == null) {
+            return null;
+        }
+
+        if (credentials.getActivationCode() != null) {
             throw new LockedException("email not activated");
         }
 
-        return user;
+        return new UserPrincipal(credentials.getId(), credentials.getEmail(), credentials.getPassword(),
+                credentials.getRoles(), credentials.isActive(), credentials.getTokenVersion());
+    }
+
+    /**
+     * Store the password hash computed again with the current algorithm and cost.
+     * Called after a successful login when the stored hash is outdated.
+     * The password itself is unchanged, so issued tokens stay valid.
+     *
+     * @param userDetails authenticated user.
+     * @param newPassword new password hash.
+     * @return user with the new password hash.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) userDetails;
+        userRepository.updatePassword(principal.getEmail(), newPassword);
+        userCache.invalidate(principal.getEmail());
+
+        return new UserPrincipal(principal.getId(), principal.getEmail(), newPassword, principal.getRoles(),
+                principal.isActive(), principal.getTokenVersion());
     }
 
     /**
@@ -139,10 +296,14 @@ public class UserServiceImpl implements UserDetailsService, UserService {
             return false;
         }
         user.setActive(false);
-        user.setRoles(Collections.singleton(Role.USER));
+        user.setRoles(EnumSet.of(Role.USER));
         user.setActivationCode(UUID.randomUUID().toString());
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        userRepository.save(user);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(user);
+            mailService.sendActivationCode(user.getEmail(), user.getActivationCode());
+        });
         return true;
     }
 
@@ -154,14 +315,15 @@ public class UserServiceImpl implements UserDetailsService, UserService {
      */
     @Override
     public boolean sendPasswordResetCode(String email) {
-        User user = userRepository.findByEmail(email);
+        String passwordResetCode = UUID.randomUUID().toString();
 
-        if (user == null) {
-            return false;
-        }
-        user.setPasswordResetCode(UUID.randomUUID().toString());
-        userRepository.save(user);
-        return true;
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (userRepository.updatePasswordResetCode(email, passwordResetCode) == 0) {
+                return false;
+            }
+            mailService.sendPasswordResetCode(email, passwordResetCode);
+            return true;
+        }));
     }
 
 
@@ -172,11 +334,24 @@ public class UserServiceImpl implements UserDetailsService, UserService {
      */
     @Override
     public void passwordReset(PasswordResetDto passwordReset) {
-        User user = userRepository.findByEmail(passwordReset.getEmail());
-        user.setPassword(passwordEncoder.encode(passwordReset.getPassword()));
-        user.setPasswordResetCode(null);
+        String email = passwordReset.getEmail();
+        userRepository.resetPassword(email, passwordEncoder.encode(passwordReset.getPassword()));
 
-        userRepository.save(user);
+        userCache.invalidate(email);
+        tokenVersionRegistry.credentialsChanged(email);
+    }
+
+    /**
+     * Revoke all tokens issued to the user.
+     *
+     * @param email user email.
+     */
+    @Override
+    public void revokeTokens(String email) {
+        userRepository.incrementTokenVersion(email);
+
+        userCache.invalidate(email);
+        tokenVersionRegistry.credentialsChanged(email);
     }
 
     /**
@@ -187,17 +362,7 @@ public class UserServiceImpl implements UserDetailsService, UserService {
      */
     @Override
     public boolean activateUser(String code) {
-        User user = userRepository.findByActivationCode(code);
-
-        if (user == null) {
-            return false;
-        }
-
-        user.setActivationCode(null);
-        user.setActive(true);
-        userRepository.save(user);
-
-        return true;
+        return userRepository.activate(code) > 0;
     }
 
     /**
@@ -221,7 +386,10 @@ public class UserServiceImpl implements UserDetailsService, UserService {
                 user.getRoles().add(Role.valueOf(key));
             }
         }
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        userCache.invalidate(user.getEmail());
+        tokenVersionRegistry.credentialsChanged(user.getEmail());
     }
 
     /**
@@ -250,8 +418,25 @@ public class UserServiceImpl implements UserDetailsService, UserService {
             user.setPassword(passwordEncoder.encode(password));
         }
 
-        userRepository.save(user);
+        boolean isCredentialsChanged = isEmailChanged || !StringUtils.isEmpty(password);
+        int tokenVersionIncrement = isCredentialsChanged ? 1 : 0;
+
+        user.setTokenVersion(user.getTokenVersion() + tokenVersionIncrement);
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.updateProfile(user.getId(), user.getEmail(), user.getActivationCode(), user.getPassword(),
+                    tokenVersionIncrement);
 
+            if (isEmailChanged && !StringUtils.isEmpty(email)) {
+                mailService.sendActivationCode(email, user.getActivationCode());
+            }
+        });
+        userCache.invalidate(userEmail);
+        userCache.invalidate(user.getEmail());
+
+        if (isCredentialsChanged) {
+            tokenVersionRegistry.credentialsChanged(userEmail);
+            tokenVersionRegistry.credentialsChanged(user.getEmail());
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+CREATE SEQUENCE IF NOT EXISTS refresh_token_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE refresh_token
+(
+    id            BIGINT                   NOT NULL PRIMARY KEY,
+    token_hash    VARCHAR(64)              NOT NULL UNIQUE,
+    family_id     VARCHAR(36)              NOT NULL,
+    user_id       BIGINT                   NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    email         VARCHAR(255)             NOT NULL,
+    token_version INTEGER                  NOT NULL,
+    expires_at    TIMESTAMP WITH TIME ZONE NOT NULL,
+    used_at       TIMESTAMP WITH TIME ZONE,
+    revoked       BOOLEAN DEFAULT FALSE    NOT NULL
+);
+
+CREATE INDEX idx_refresh_token_family_id ON refresh_token (family_id);
+CREATE INDEX idx_refresh_token_user_id ON refresh_token (user_id);
+CREATE INDEX idx_refresh_token_expires_at ON refresh_token (expires_at);
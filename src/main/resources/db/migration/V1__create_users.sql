@@ -0,0 +1,18 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id                  BIGINT  NOT NULL PRIMARY KEY,
+    username            VARCHAR(255),
+    password            VARCHAR(255),
+    email               VARCHAR(255),
+    active              BOOLEAN NOT NULL,
+    activation_code     VARCHAR(255),
+    password_reset_code VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS user_role
+(
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    roles   VARCHAR(255)
+);
@@ -0,0 +1 @@
+ALTER TABLE users ADD COLUMN token_version INTEGER DEFAULT 0 NOT NULL;
@@ -0,0 +1,8 @@
+-- One index per UserRepository finder, unique where the value identifies a single user.
+CREATE UNIQUE INDEX idx_users_email ON users (email);
+CREATE INDEX idx_users_username ON users (username);
+CREATE UNIQUE INDEX idx_users_activation_code ON users (activation_code);
+CREATE UNIQUE INDEX idx_users_password_reset_code ON users (password_reset_code);
+
+-- PostgreSQL does not index foreign keys, roles are loaded by user id with every user.
+CREATE INDEX idx_user_role_user_id ON user_role (user_id);
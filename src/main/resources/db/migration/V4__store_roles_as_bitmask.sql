@@ -0,0 +1,9 @@
+-- Roles are stored on the users row as bitmask of Role ordinals: USER = 1, ADMIN = 2.
+ALTER TABLE users ADD COLUMN role_mask INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE users
+SET role_mask = COALESCE((SELECT SUM(DISTINCT CASE r.roles WHEN 'USER' THEN 1 WHEN 'ADMIN' THEN 2 ELSE 0 END)
+                          FROM user_role r
+                          WHERE r.user_id = users.id), 0);
+
+DROP TABLE user_role;
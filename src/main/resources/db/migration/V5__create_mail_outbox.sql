@@ -0,0 +1,17 @@
+CREATE SEQUENCE IF NOT EXISTS mail_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE mail_outbox
+(
+    id              BIGINT                   NOT NULL PRIMARY KEY,
+    recipient       VARCHAR(255)             NOT NULL,
+    subject         VARCHAR(255)             NOT NULL,
+    body            VARCHAR(4000)            NOT NULL,
+    status          VARCHAR(16)              NOT NULL,
+    attempts        INTEGER DEFAULT 0        NOT NULL,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_error      VARCHAR(1024)
+);
+
+-- The dispatcher polls pending messages which are due.
+CREATE INDEX idx_mail_outbox_due ON mail_outbox (status, next_attempt_at);
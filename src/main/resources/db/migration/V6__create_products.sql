@@ -0,0 +1,12 @@
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE products
+(
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    description VARCHAR(4000),
+    brand       VARCHAR(255) NOT NULL,
+    category    VARCHAR(255) NOT NULL,
+    price       INTEGER      NOT NULL,
+    image_file  VARCHAR(255)
+);
@@ -0,0 +1,7 @@
+CREATE TABLE cart_item
+(
+    user_id    BIGINT  NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    product_id BIGINT  NOT NULL,
+    quantity   INTEGER NOT NULL,
+    PRIMARY KEY (user_id, product_id)
+);
@@ -0,0 +1,26 @@
+ALTER TABLE products ADD COLUMN stock INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_item_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE orders
+(
+    id          BIGINT                   NOT NULL PRIMARY KEY,
+    user_id     BIGINT                   NOT NULL REFERENCES users (id),
+    total_price BIGINT                   NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE order_item
+(
+    id           BIGINT       NOT NULL PRIMARY KEY,
+    order_id     BIGINT       NOT NULL REFERENCES orders (id),
+    product_id   BIGINT       NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    price        INTEGER      NOT NULL,
+    quantity     INTEGER      NOT NULL
+);
+
+CREATE INDEX idx_orders_user_id ON orders (user_id);
+CREATE INDEX idx_order_item_order_id ON order_item (order_id);
@@ -0,0 +1,8 @@
+CREATE TABLE revoked_token
+(
+    id         VARCHAR(36)              NOT NULL PRIMARY KEY,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Expired revocations are deleted and the others are loaded at startup.
+CREATE INDEX idx_revoked_token_expires_at ON revoked_token (expires_at);
@@ -0,0 +1,72 @@
+package com.jaky.ecomerce.eshop.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that added strings are always found and that the false positive rate stays near the configured one.
+ */
+class BloomFilterTest {
+    private static final int INSERTIONS = 100_000;
+
+    @Test
+    void neverMissesAddedString() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.001);
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("revoked-" + i);
+        }
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain("revoked-" + i), "revoked-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsNearConfigured() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("revoked-" + i);
+        }
+        int falsePositives = 0;
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < INSERTIONS * 0.02, "false positives " + falsePositives);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        assertFalse(new BloomFilter(INSERTIONS, 0.001).mightContain("revoked"));
+    }
+
+    @Test
+    void concurrentPutsAreNotLost() throws Exception {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.001);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            executor.execute(() -> {
+                for (int i = offset; i < INSERTIONS; i += 8) {
+                    filter.put("revoked-" + i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(filter.mightContain("revoked-" + i), "revoked-" + i);
+        }
+    }
+}
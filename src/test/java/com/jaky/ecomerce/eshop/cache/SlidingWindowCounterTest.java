@@ -0,0 +1,114 @@
+package com.jaky.ecomerce.eshop.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts events in a 15 minute window of 1 minute buckets with a controlled clock.
+ */
+class SlidingWindowCounterTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    private final SlidingWindowCounter counter = new SlidingWindowCounter(15 * MINUTE, 15, 1024, now::get);
+
+    @Test
+    void countsEventsPerKey() {
+        counter.increment("a");
+        counter.increment("a");
+
+        assertEquals(3, counter.increment("a"));
+        assertEquals(3, counter.estimate("a"));
+        assertEquals(0, counter.estimate("b"));
+    }
+
+    @Test
+    void eventsLeaveWindowAfterWindowLength() {
+        counter.increment("a");
+
+        now.addAndGet(14 * MINUTE);
+        assertEquals(1, counter.estimate("a"));
+
+        now.addAndGet(MINUTE);
+        assertEquals(0, counter.estimate("a"));
+    }
+
+    @Test
+    void windowSlidesByBucket() {
+        counter.increment("a");
+        now.addAndGet(5 * MINUTE);
+        counter.increment("a");
+
+        now.addAndGet(10 * MINUTE);
+
+        assertEquals(1, counter.estimate("a"));
+    }
+
+    @Test
+    void reusedBucketStartsEmpty() {
+        counter.increment("a");
+        counter.increment("a");
+        now.addAndGet(15 * MINUTE);
+
+        assertEquals(1, counter.increment("a"));
+    }
+
+    @Test
+    void resetForgetsOnlyTheKey() {
+        counter.increment("a");
+        now.addAndGet(MINUTE);
+        counter.increment("a");
+        counter.increment("b");
+        counter.increment("b");
+
+        counter.reset("a");
+
+        assertEquals(0, counter.estimate("a"));
+        assertEquals(2, counter.estimate("b"));
+    }
+
+    @Test
+    void keyCollidingUnderUnseededHashCannotResetAnotherKey() {
+        int width = 1024;
+        String victim = "victim@example.com";
+        String attacker = collidingKey(victim, width);
+        SlidingWindowCounter narrow = new SlidingWindowCounter(15 * MINUTE, 15, width, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            narrow.increment(victim);
+        }
+        narrow.reset(attacker);
+
+        assertEquals(5, narrow.estimate(victim));
+    }
+
+    /**
+     * Searches a key sharing all four cells of the victim in a sketch of the given width,
+     * as an attacker could offline if the hash had no secret seed.
+     */
+    private static String collidingKey(String victim, int width) {
+        for (int i = 0; ; i++) {
+            String key = "attacker" + i + "@example.com";
+
+            if (columns(key, width).equals(columns(victim, width))) {
+                return key;
+            }
+        }
+    }
+
+    private static String columns(String key, int width) {
+        long hash1 = Hashing.hash(key);
+        long hash2 = Hashing.rehash(hash1);
+        StringBuilder columns = new StringBuilder();
+
+        for (int row = 0; row < 4; row++) {
+            columns.append(Long.remainderUnsigned(hash1 + row * hash2, width)).append(',');
+        }
+        return columns.toString();
+    }
+}
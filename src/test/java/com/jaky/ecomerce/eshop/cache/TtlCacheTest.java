@@ -0,0 +1,131 @@
+package com.jaky.ecomerce.eshop.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks expiration, the size bound and loads racing with invalidations.
+ */
+class TtlCacheTest {
+    private final AtomicLong now = new AtomicLong();
+
+    private final TtlCache<String, String> cache = new TtlCache<>(100, 10, TimeUnit.SECONDS, now::get);
+
+    @Test
+    void expiresAfterTimeToLive() {
+        cache.put("key", "value");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertEquals("value", cache.get("key"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void shorterTimeToLiveOfEntryWins() {
+        cache.put("key", "value", 2, TimeUnit.SECONDS);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void longerTimeToLiveOfEntryIsCapped() {
+        cache.put("key", "value", 1, TimeUnit.HOURS);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void staysWithinMaximumSize() {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value");
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.size() <= 100, "size " + cache.size());
+    }
+
+    @Test
+    void loadsOnceAndCountsHitsAndMisses() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("value", cache.get("key", key -> {
+            loads.incrementAndGet();
+            return "value";
+        }));
+        assertEquals("value", cache.get("key", key -> "other"));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void doesNotCacheNullValues() {
+        assertNull(cache.get("key", key -> null));
+        assertEquals("value", cache.get("key", key -> "value"));
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        TtlCache<String, String> disabled = new TtlCache<>(0, 10, TimeUnit.SECONDS);
+        disabled.put("key", "value");
+
+        assertNull(disabled.get("key"));
+        assertEquals("loaded", disabled.get("key", key -> "loaded"));
+        assertNull(disabled.get("key"));
+    }
+
+    @Test
+    void invalidateDuringLoadDropsLoadedValue() throws Exception {
+        assertLoadDropped(() -> cache.invalidate("key"));
+    }
+
+    @Test
+    void invalidateAllDuringLoadDropsLoadedValue() throws Exception {
+        assertLoadDropped(cache::invalidateAll);
+    }
+
+    /**
+     * Starts a load, runs the invalidation while the loader is blocked and checks that
+     * the value read before the invalidation is not cached after it.
+     */
+    private void assertLoadDropped(Runnable invalidation) throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> cache.get("key", key -> {
+            loading.countDown();
+            await(release);
+            return "stale";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> invalidate = CompletableFuture.runAsync(invalidation);
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals("stale", load.get(5, TimeUnit.SECONDS));
+        invalidate.get(5, TimeUnit.SECONDS);
+        assertNull(cache.get("key"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.jaky.ecomerce.eshop.catalog;
+
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import com.jaky.ecomerce.eshop.dto.ProductFilterDto;
+import com.jaky.ecomerce.eshop.dto.ProductPageDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Searches every snapshot against the index of its own products, whichever snapshot is current.
+ */
+class CatalogSnapshotTest {
+    @Test
+    void searchSeesProductsOfItsOwnVersion() {
+        CatalogSnapshot before = CatalogSnapshot.of(List.of(
+                product(1, "Red phone", "brand"),
+                product(2, "Red case", "brand")));
+        CatalogSnapshot renamed = before.with(product(1, "Blue phone", "brand"));
+        CatalogSnapshot removed = renamed.without(2);
+
+        assertEquals(List.of(1L, 2L), ids(before.search("red", null, 0, 10)));
+        assertEquals(List.of(2L), ids(renamed.search("red", null, 0, 10)));
+        assertEquals(List.of(1L), ids(renamed.search("blue", null, 0, 10)));
+        assertEquals(List.of(), ids(removed.search("red", null, 0, 10)));
+        assertEquals(List.of(1L), ids(removed.search("phone", null, 0, 10)));
+        assertEquals("Red phone", before.search("phone", null, 0, 10).getProducts().get(0).getName());
+    }
+
+    @Test
+    void searchAppliesFilterAndPaging() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+                product(3, "USB cable", "other"),
+                product(1, "USB charger", "brand"),
+                product(2, "USB hub", "brand")));
+        ProductFilterDto filter = new ProductFilterDto();
+        filter.setBrands(Set.of("brand"));
+
+        ProductPageDto page = snapshot.search("usb", filter, 1, 1);
+
+        assertEquals(List.of(2L), ids(page));
+        assertEquals(2, page.getTotal());
+        assertEquals(3, snapshot.search(" ", null, 0, 10).getTotal());
+    }
+
+    private static List<Long> ids(ProductPageDto page) {
+        return page.getProducts().stream().map(ProductDto::getId).toList();
+    }
+
+    private static ProductDto product(long id, String name, String brand) {
+        return new ProductDto(id, name, null, brand, "category", 100, null);
+    }
+}
@@ -0,0 +1,105 @@
+package com.jaky.ecomerce.eshop.catalog;
+
+import com.jaky.ecomerce.eshop.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Searches products by words and keeps incremental changes consistent with building the index at once.
+ */
+class SearchIndexTest {
+    private static final String[] WORDS = {"red", "blue", "phone", "case", "leather", "usb", "cable", "fast"};
+
+    @Test
+    void intersectsWordsOfQuery() {
+        SearchIndex index = SearchIndex.of(List.of(
+                product(1, "Red phone", "Fast charging"),
+                product(2, "Blue phone case", "Leather"),
+                product(3, "Red leather case", null),
+                product(4, "USB cable", "fast, red")));
+
+        assertArrayEquals(new long[]{1, 3, 4}, index.search("red"));
+        assertArrayEquals(new long[]{1, 4}, index.search("RED fast"));
+        assertArrayEquals(new long[]{2, 3}, index.search("leather-case"));
+        assertArrayEquals(new long[]{3}, index.search("case red leather"));
+        assertArrayEquals(new long[0], index.search("red blue"));
+        assertArrayEquals(new long[0], index.search("red unknown"));
+        assertNull(index.search(" ,. "));
+    }
+
+    @Test
+    void incrementalChangesMatchRebuild() {
+        Random random = new Random(42);
+        TreeMap<Long, ProductDto> products = new TreeMap<>();
+        SearchIndex index = SearchIndex.EMPTY;
+
+        for (int step = 0; step < 2000; step++) {
+            long id = 1 + random.nextInt(50);
+            ProductDto previous = products.get(id);
+
+            if (previous != null && random.nextInt(4) == 0) {
+                index = index.without(previous);
+                products.remove(id);
+            } else {
+                ProductDto product = product(id, randomText(random), randomText(random));
+                index = index.with(previous, product);
+                products.put(id, product);
+            }
+        }
+        SearchIndex rebuilt = SearchIndex.of(new ArrayList<>(products.values()));
+
+        assertEquals(rebuilt.size(), index.size());
+        for (String word : WORDS) {
+            assertArrayEquals(rebuilt.search(word), index.search(word), word);
+
+            for (String other : WORDS) {
+                assertArrayEquals(rebuilt.search(word + " " + other), index.search(word + " " + other));
+            }
+        }
+    }
+
+    @Test
+    void removingLastProductOfWordDropsWord() {
+        ProductDto product = product(1, "Red phone", null);
+        SearchIndex index = SearchIndex.EMPTY.with(null, product).with(product, product(1, "Blue phone", null));
+
+        assertArrayEquals(new long[0], index.search("red"));
+        assertEquals(2, index.size());
+        assertEquals(0, index.without(product(1, "Blue phone", null)).size());
+    }
+
+    @Test
+    void changesLeaveEarlierIndexUnchanged() {
+        ProductDto product = product(1, "Red phone", null);
+        SearchIndex first = SearchIndex.EMPTY.with(null, product);
+        SearchIndex renamed = first.with(product, product(1, "Blue phone", null));
+        SearchIndex removed = renamed.without(product(1, "Blue phone", null));
+
+        assertArrayEquals(new long[]{1}, first.search("red phone"));
+        assertArrayEquals(new long[0], first.search("blue"));
+        assertArrayEquals(new long[]{1}, renamed.search("blue phone"));
+        assertArrayEquals(new long[0], removed.search("phone"));
+        assertEquals(0, SearchIndex.EMPTY.size());
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+
+        for (int i = random.nextInt(4); i > 0; i--) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static ProductDto product(long id, String name, String description) {
+        return new ProductDto(id, name, description, "brand", "category", 100, null);
+    }
+}
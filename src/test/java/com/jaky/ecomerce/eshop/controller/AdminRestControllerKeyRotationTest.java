@@ -0,0 +1,108 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.cache.TtlCache;
+import com.jaky.ecomerce.eshop.model.Role;
+import com.jaky.ecomerce.eshop.security.JwtAuthenticationException;
+import com.jaky.ecomerce.eshop.security.JwtProvider;
+import com.jaky.ecomerce.eshop.security.TokenRevocationList;
+import com.jaky.ecomerce.eshop.security.TokenVersionRegistry;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import com.jaky.ecomerce.eshop.service.ProductService;
+import com.jaky.ecomerce.eshop.service.UserImportService;
+import com.jaky.ecomerce.eshop.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Rotates and retires JWT signing keys through the admin endpoints of a running provider.
+ */
+class AdminRestControllerKeyRotationTest {
+    private final UserPrincipal user = new UserPrincipal(1L, "user@example.com", null, EnumSet.of(Role.USER), true, 0);
+
+    private JwtProvider jwtProvider;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        jwtProvider = new JwtProvider(mock(UserDetailsService.class), mock(TokenVersionRegistry.class),
+                new TtlCache<>(100, 10, TimeUnit.MINUTES), mock(TokenRevocationList.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtProvider, "authorizationHeader", "Authorization");
+        ReflectionTestUtils.setField(jwtProvider, "secretKey", "old-secret-0mgWGti7CYzmbzWL4xWQ");
+        ReflectionTestUtils.setField(jwtProvider, "previousSecretKeys", new String[0]);
+        ReflectionTestUtils.setField(jwtProvider, "validityInMilliseconds", 900L);
+        ReflectionTestUtils.setField(jwtProvider, "stateless", true);
+        ReflectionTestUtils.invokeMethod(jwtProvider, "init");
+        mockMvc = MockMvcBuilders.standaloneSetup(new AdminRestController(mock(UserService.class),
+                mock(UserImportService.class), mock(ProductService.class), jwtProvider)).build();
+    }
+
+    @Test
+    void rotatedKeySignsNewTokensAndRetiredKeyIsRejected() throws Exception {
+        String oldToken = jwtProvider.createToken(user);
+        String oldKeyId = keyId(oldToken);
+
+        mockMvc.perform(post("/api/v1/rest/admin/jwt/key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"secret\":\"new-secret-x9Pq2LmVt7RsKw3ZbYnD\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keyId").isNotEmpty());
+
+        String newToken = jwtProvider.createToken(user);
+        assertEquals("user@example.com", jwtProvider.parseToken(oldToken).getSubject());
+
+        mockMvc.perform(delete("/api/v1/rest/admin/jwt/key/" + oldKeyId))
+                .andExpect(status().isNoContent());
+
+        assertThrows(JwtAuthenticationException.class, () -> jwtProvider.parseToken(oldToken));
+        assertEquals("user@example.com", jwtProvider.parseToken(newToken).getSubject());
+    }
+
+    @Test
+    void activeKeyCannotBeRetired() throws Exception {
+        String activeKeyId = keyId(jwtProvider.createToken(user));
+
+        mockMvc.perform(delete("/api/v1/rest/admin/jwt/key/" + activeKeyId))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void unknownKeyIsNotFound() throws Exception {
+        mockMvc.perform(delete("/api/v1/rest/admin/jwt/key/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void emptySecretIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/rest/admin/jwt/key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"secret\":\" \"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String keyId(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        int start = header.indexOf("\"kid\":\"") + 7;
+        return header.substring(start, header.indexOf('"', start));
+    }
+}
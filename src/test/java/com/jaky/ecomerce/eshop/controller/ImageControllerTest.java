@@ -0,0 +1,99 @@
+package com.jaky.ecomerce.eshop.controller;
+
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.service.ImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Serves an image file from a temporary directory through the copying fallback, as the mock
+ * request does not offer sendfile.
+ */
+class ImageControllerTest {
+    private static final String CONTENT = "0123456789";
+
+    private final ImageService imageService = mock(ImageService.class);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp(@TempDir Path directory) throws Exception {
+        Path image = Files.writeString(directory.resolve("phone.png"), CONTENT, StandardCharsets.US_ASCII);
+        when(imageService.getImage("phone.png")).thenReturn(image);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ImageController(imageService, new ApplicationProperties()))
+                .build();
+    }
+
+    @Test
+    void sendsWholeImage() throws Exception {
+        mockMvc.perform(get("/img/phone.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void sendsSingleRange() throws Exception {
+        mockMvc.perform(get("/img/phone.png").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void sendsSuffixRange() throws Exception {
+        mockMvc.perform(get("/img/phone.png").header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void rejectsRangeBeyondEndOfImage() throws Exception {
+        mockMvc.perform(get("/img/phone.png").header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void ignoresRangeOfOtherVersion() throws Exception {
+        mockMvc.perform(get("/img/phone.png")
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void answersNotModifiedForCurrentEtag() throws Exception {
+        String etag = mockMvc.perform(get("/img/phone.png"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/img/phone.png").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void answersNotFoundForUnknownImage() throws Exception {
+        mockMvc.perform(get("/img/unknown.png"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,126 @@
+package com.jaky.ecomerce.eshop.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reserves stock from many threads at once and checks that no product is oversold.
+ */
+class StockReservationBatcherTest {
+    private static final int THREADS = 32;
+
+    private static final int REQUESTS_PER_THREAD = 200;
+
+    @Test
+    void neverReservesMoreThanTheStock() throws Exception {
+        FakeStockStore stockStore = new FakeStockStore(1000);
+        StockReservationBatcher batcher = new StockReservationBatcher(stockStore, 100);
+
+        int reserved = reserveConcurrently(batcher, 1, 1);
+
+        assertEquals(1000, reserved);
+        assertEquals(0, stockStore.getStock(1));
+    }
+
+    @Test
+    void reservesSmallerRequestsWhenBatchDoesNotFit() throws Exception {
+        FakeStockStore stockStore = new FakeStockStore(997);
+        StockReservationBatcher batcher = new StockReservationBatcher(stockStore, 100);
+
+        int reserved = reserveConcurrently(batcher, 1, 3);
+
+        assertTrue(reserved * 3 <= 997);
+        assertEquals(997 - reserved * 3, stockStore.getStock(1));
+        assertTrue(stockStore.getStock(1) < 3);
+    }
+
+    @Test
+    void releaseReturnsStock() {
+        FakeStockStore stockStore = new FakeStockStore(5);
+        StockReservationBatcher batcher = new StockReservationBatcher(stockStore, 100);
+
+        assertTrue(batcher.reserve(1, 5));
+        batcher.release(1, 2);
+
+        assertEquals(2, stockStore.getStock(1));
+    }
+
+    /**
+     * Returns the number of successful reservations.
+     */
+    private static int reserveConcurrently(StockReservationBatcher batcher, long productId, int quantity)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int reserved = 0;
+
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        if (batcher.reserve(productId, quantity)) {
+                            reserved++;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            start.countDown();
+            int reserved = 0;
+
+            for (Future<Integer> result : results) {
+                reserved += result.get();
+            }
+            return reserved;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stock of one product which fails when it would become negative, like the conditional update.
+     */
+    private static final class FakeStockStore implements StockStore {
+        private final AtomicInteger stock;
+
+        private FakeStockStore(int stock) {
+            this.stock = new AtomicInteger(stock);
+        }
+
+        @Override
+        public boolean reserve(long productId, int quantity) {
+            int current;
+
+            do {
+                current = stock.get();
+
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!stock.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        @Override
+        public void release(long productId, int quantity) {
+            stock.addAndGet(quantity);
+        }
+
+        int getStock(long productId) {
+            return stock.get();
+        }
+    }
+}
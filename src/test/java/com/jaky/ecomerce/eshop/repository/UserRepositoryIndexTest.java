@@ -0,0 +1,146 @@
+package com.jaky.ecomerce.eshop.repository;
+
+import com.jaky.ecomerce.eshop.model.Role;
+import com.jaky.ecomerce.eshop.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks on an embedded database migrated with the application migrations that the SQL
+ * Hibernate generates for every {@link UserRepository} finder is served by an index.
+ * The statements are captured as Hibernate prepares them and explained with their parameters.
+ */
+@DataJpaTest
+class UserRepositoryIndexTest {
+    /**
+     * Statements prepared by Hibernate since the last clear.
+     */
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(dataSource).update("INSERT INTO users (id, username, email, active, activation_code, " +
+                "password_reset_code, role_mask) VALUES (1, 'name', 'value', TRUE, 'code', 'reset', 3)");
+        entityManager.clear();
+        STATEMENTS.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"email", "username", "activation_code", "password_reset_code"})
+    void finderUsesIndex(String column) throws SQLException {
+        switch (column) {
+            case "email" -> userRepository.findByEmail("value");
+            case "username" -> userRepository.findByUsername("name");
+            case "activation_code" -> userRepository.findByActivationCode("code");
+            default -> userRepository.findByPasswordResetCode("reset");
+        }
+        String plan = explain(lastSelect());
+
+        assertTrue(plan.contains("IDX_USERS_" + column.toUpperCase()), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void credentialsProjectionUsesEmailIndex() throws SQLException {
+        userRepository.findCredentialsByEmail("value");
+        String plan = explain(lastSelect());
+
+        assertTrue(plan.contains("IDX_USERS_EMAIL"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void existingEmailsLookupUsesEmailIndex() throws SQLException {
+        userRepository.findExistingEmails(List.of("value", "other"));
+        String plan = explain(lastSelect());
+
+        assertTrue(plan.contains("IDX_USERS_EMAIL"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    /**
+     * Roles used to be loaded by a join with user_role, they are now read from the users row.
+     */
+    @Test
+    void rolesAreLoadedWithUserInOneIndexedStatement() throws SQLException {
+        User user = userRepository.findByEmail("value");
+
+        assertEquals(EnumSet.of(Role.USER, Role.ADMIN), user.getRoles());
+        assertEquals(1, STATEMENTS.size(), STATEMENTS::toString);
+        assertFalse(STATEMENTS.get(0).toLowerCase().contains("user_role"), STATEMENTS.get(0));
+        assertFalse(explain(STATEMENTS.get(0)).contains("tableScan"));
+    }
+
+    private static String lastSelect() {
+        for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+            if (STATEMENTS.get(i).toLowerCase().startsWith("select")) {
+                return STATEMENTS.get(i);
+            }
+        }
+        throw new AssertionError("No select statement in " + STATEMENTS);
+    }
+
+    /**
+     * Explain the statement, binding a string to every parameter.
+     */
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setString(i, "value");
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+        @Bean
+        HibernatePropertiesCustomizer statementCapture() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                STATEMENTS.add(sql);
+                return sql;
+            });
+        }
+    }
+}
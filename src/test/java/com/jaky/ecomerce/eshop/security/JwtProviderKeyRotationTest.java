@@ -0,0 +1,111 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.jaky.ecomerce.eshop.cache.TtlCache;
+import com.jaky.ecomerce.eshop.model.Role;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Signs and verifies tokens across a key rotation.
+ */
+class JwtProviderKeyRotationTest {
+    private static final String OLD_SECRET = "old-secret-0mgWGti7CYzmbzWL4xWQ";
+
+    private static final String NEW_SECRET = "new-secret-x9Pq2LmVt7RsKw3ZbYnD";
+
+    private final UserPrincipal user = new UserPrincipal(1L, "user@example.com", null, EnumSet.of(Role.USER), true, 0);
+
+    private JwtProvider jwtProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtProvider = new JwtProvider(mock(UserDetailsService.class), mock(TokenVersionRegistry.class),
+                new TtlCache<>(100, 10, TimeUnit.MINUTES), mock(TokenRevocationList.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtProvider, "authorizationHeader", "Authorization");
+        ReflectionTestUtils.setField(jwtProvider, "secretKey", OLD_SECRET);
+        ReflectionTestUtils.setField(jwtProvider, "previousSecretKeys", new String[0]);
+        ReflectionTestUtils.setField(jwtProvider, "validityInMilliseconds", 900L);
+        ReflectionTestUtils.setField(jwtProvider, "stateless", true);
+        jwtProvider.init();
+    }
+
+    @Test
+    void tokenOfPreviousKeyVerifiesUntilKeyIsRetired() {
+        String oldToken = jwtProvider.createToken(user);
+        String oldKeyId = JwtKeyRing.of(OLD_SECRET).getActiveKeyId();
+
+        String newKeyId = jwtProvider.rotateKey(NEW_SECRET);
+
+        assertNotEquals(oldKeyId, newKeyId);
+        assertEquals("user@example.com", jwtProvider.parseToken(oldToken).getSubject());
+
+        jwtProvider.retireKey(oldKeyId);
+
+        assertThrows(JwtAuthenticationException.class, () -> jwtProvider.parseToken(oldToken));
+    }
+
+    @Test
+    void newTokensAreSignedWithNewKey() {
+        String newKeyId = jwtProvider.rotateKey(NEW_SECRET);
+
+        String token = jwtProvider.createToken(user);
+
+        assertEquals(newKeyId, keyId(token));
+        assertEquals("user@example.com", jwtProvider.parseToken(token).getSubject());
+    }
+
+    @Test
+    void activeKeyCannotBeRetired() {
+        String newKeyId = jwtProvider.rotateKey(NEW_SECRET);
+
+        assertThrows(IllegalArgumentException.class, () -> jwtProvider.retireKey(newKeyId));
+    }
+
+    @Test
+    void rejectsTokenWithUnknownKeyId() {
+        String token = sign("unknown", "other-secret-Hq4ZbT8nLw2VxR6cKpYs");
+
+        assertThrows(JwtAuthenticationException.class, () -> jwtProvider.parseToken(token));
+    }
+
+    @Test
+    void rejectsTokenWithKnownKeyIdButOtherSecret() {
+        String token = sign(JwtKeyRing.of(OLD_SECRET).getActiveKeyId(), "other-secret-Hq4ZbT8nLw2VxR6cKpYs");
+
+        assertThrows(JwtAuthenticationException.class, () -> jwtProvider.parseToken(token));
+    }
+
+    private static String sign(String keyId, String secret) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyId)
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256,
+                        new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                .compact();
+    }
+
+    private static String keyId(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        return header.replaceAll(".*\"kid\":\"([^\"]+)\".*", "$1");
+    }
+}
@@ -0,0 +1,89 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the login limits with a controlled clock: 3 attempts per address and 2 failures per email
+ * within 15 minutes.
+ */
+class LoginThrottleTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    private final LoginThrottle loginThrottle = throttle(3, 2);
+
+    @Test
+    void limitsAllAttemptsOfAddress() {
+        assertTrue(loginThrottle.tryAcquire("a@example.com", "10.0.0.1"));
+        assertTrue(loginThrottle.tryAcquire("b@example.com", "10.0.0.1"));
+        assertTrue(loginThrottle.tryAcquire("c@example.com", "10.0.0.1"));
+
+        assertFalse(loginThrottle.tryAcquire("d@example.com", "10.0.0.1"));
+        assertTrue(loginThrottle.tryAcquire("d@example.com", "10.0.0.2"));
+        assertEquals(1, loginThrottle.getRejectedByAddress());
+    }
+
+    @Test
+    void limitsOnlyFailuresOfEmail() {
+        LoginThrottle throttle = throttle(1000, 2);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(throttle.tryAcquire("user@example.com", "10.0.0." + i));
+        }
+        throttle.loginFailed("user@example.com");
+        throttle.loginFailed(" User@Example.COM");
+
+        assertFalse(throttle.tryAcquire("user@example.com", "10.0.0.100"));
+        assertTrue(throttle.tryAcquire("other@example.com", "10.0.0.100"));
+        assertEquals(1, throttle.getRejectedByEmail());
+    }
+
+    @Test
+    void successfulLoginResetsFailures() {
+        LoginThrottle throttle = throttle(1000, 2);
+        throttle.loginFailed("user@example.com");
+
+        throttle.loginSucceeded("user@example.com");
+        throttle.loginFailed("user@example.com");
+
+        assertTrue(throttle.tryAcquire("user@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void failuresLeaveWindow() {
+        LoginThrottle throttle = throttle(1000, 2);
+        throttle.loginFailed("user@example.com");
+        throttle.loginFailed("user@example.com");
+        assertFalse(throttle.tryAcquire("user@example.com", "10.0.0.1"));
+
+        now.addAndGet(15 * MINUTE);
+
+        assertTrue(throttle.tryAcquire("user@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void retryAfterIsOneBucket() {
+        assertEquals(60, loginThrottle.getRetryAfterSeconds());
+    }
+
+    private LoginThrottle throttle(int maxAttemptsPerAddress, int maxFailuresPerEmail) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.LoginThrottle settings = applicationProperties.getLoginThrottle();
+        settings.setWindow(Duration.ofMinutes(15));
+        settings.setBuckets(15);
+        settings.setWidth(1024);
+        settings.setMaxAttemptsPerAddress(maxAttemptsPerAddress);
+        settings.setMaxFailuresPerEmail(maxFailuresPerEmail);
+        return new LoginThrottle(applicationProperties, now::get);
+    }
+}
@@ -0,0 +1,132 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the limits of a route group with a controlled clock.
+ */
+class RouteLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void matchesPatterns() {
+        RouteLimiter limiter = limiter(0, 0, 1, 1, 0);
+
+        assertTrue(limiter.matches("/api/v1/rest/reset/code"));
+        assertFalse(limiter.matches("/api/v1/rest/login"));
+    }
+
+    @Test
+    void limitsEachClientSeparately() {
+        RouteLimiter limiter = limiter(0, 0, 1, 2, 0);
+
+        assertEquals(0, limiter.tryAcquireRate("a"));
+        assertEquals(0, limiter.tryAcquireRate("a"));
+        assertTrue(limiter.tryAcquireRate("a") > 0);
+        assertEquals(0, limiter.tryAcquireRate("b"));
+        assertEquals(1, limiter.getRejectedByRate());
+    }
+
+    @Test
+    void limitsAllClientsTogether() {
+        RouteLimiter limiter = limiter(1, 2, 100, 100, 0);
+
+        assertEquals(0, limiter.tryAcquireRate("a"));
+        assertEquals(0, limiter.tryAcquireRate("b"));
+        assertTrue(limiter.tryAcquireRate("c") > 0);
+    }
+
+    @Test
+    void throttledClientWhichKeepsSendingIsNotReset() {
+        RouteLimiter limiter = limiter(0, 0, 0.001, 1, 0);
+        assertEquals(0, limiter.tryAcquireRate("a"));
+
+        for (int minute = 1; minute <= 15; minute++) {
+            now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+            assertTrue(limiter.tryAcquireRate("a") > 0, "minute " + minute);
+        }
+    }
+
+    @Test
+    void idleClientStartsWithFullBucket() {
+        RouteLimiter limiter = limiter(0, 0, 0.001, 1, 0);
+        assertEquals(0, limiter.tryAcquireRate("a"));
+        assertTrue(limiter.tryAcquireRate("a") > 0);
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(11));
+
+        assertEquals(0, limiter.tryAcquireRate("a"));
+    }
+
+    @Test
+    void concurrentFirstRequestsOfClientShareOneBucket() throws Exception {
+        RouteLimiter limiter = limiter(0, 0, 0.001, 10, 0);
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        for (int i = 0; i < 16; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int j = 0; j < 10; j++) {
+                    if (limiter.tryAcquireRate("a") == 0) {
+                        acquired.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10, acquired.get());
+    }
+
+    @Test
+    void bulkheadRejectsOverLimitUntilReleased() {
+        RouteLimiter limiter = limiter(0, 0, 0, 0, 2);
+
+        assertTrue(limiter.tryAcquireConcurrency());
+        assertTrue(limiter.tryAcquireConcurrency());
+        assertFalse(limiter.tryAcquireConcurrency());
+        assertEquals(2, limiter.getActiveRequests());
+
+        limiter.release();
+
+        assertTrue(limiter.tryAcquireConcurrency());
+        assertEquals(1, limiter.getRejectedByConcurrency());
+    }
+
+    private RouteLimiter limiter(double rate, int burst, double clientRate, int clientBurst, int maxConcurrent) {
+        ApplicationProperties.RateLimit.Route route = new ApplicationProperties.RateLimit.Route();
+        route.setName("auth");
+        route.setPatterns(List.of("/api/v1/rest/forgot", "/api/v1/rest/reset/**"));
+        route.setRate(rate);
+        route.setBurst(burst);
+        route.setClientRate(clientRate);
+        route.setClientBurst(clientBurst);
+        route.setMaxConcurrent(maxConcurrent);
+        return new RouteLimiter(route, 1000, Duration.ofMinutes(10), now::get);
+    }
+}
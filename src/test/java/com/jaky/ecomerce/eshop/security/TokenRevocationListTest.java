@@ -0,0 +1,96 @@
+package com.jaky.ecomerce.eshop.security;
+
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the revocation list against a repository stub.
+ */
+class TokenRevocationListTest {
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+
+    private final TokenRevocationList revocationList =
+            new TokenRevocationList(revokedTokenRepository, new ApplicationProperties());
+
+    @BeforeEach
+    void setUp() {
+        when(revokedTokenRepository.findActiveIds(any())).thenReturn(List.of());
+        revocationList.rebuild();
+    }
+
+    @Test
+    void revokedTokenIsReported() {
+        when(revokedTokenRepository.existsById("a")).thenReturn(true);
+
+        revocationList.revoke("a", Instant.now().plusSeconds(60));
+
+        assertTrue(revocationList.isRevoked("a"));
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    @Test
+    void revokedTokensOfDatabaseAreReportedAfterRebuild() {
+        when(revokedTokenRepository.findActiveIds(any())).thenReturn(List.of("a", "b"));
+        when(revokedTokenRepository.existsById("a")).thenReturn(true);
+        when(revokedTokenRepository.existsById("b")).thenReturn(true);
+
+        revocationList.rebuild();
+
+        assertTrue(revocationList.isRevoked("a"));
+        assertTrue(revocationList.isRevoked("b"));
+    }
+
+    @Test
+    void revocationDuringRebuildSurvivesRebuild() {
+        when(revokedTokenRepository.existsById("late")).thenReturn(true);
+        when(revokedTokenRepository.findActiveIds(any())).thenAnswer(invocation -> {
+            revocationList.revoke("late", Instant.now().plusSeconds(60));
+            return List.of();
+        });
+
+        revocationList.rebuild();
+
+        assertTrue(revocationList.isRevoked("late"));
+
+        when(revokedTokenRepository.findActiveIds(any())).thenReturn(List.of("late"));
+        revocationList.rebuild();
+
+        assertTrue(revocationList.isRevoked("late"));
+    }
+
+    @Test
+    void unknownTokenIsAnsweredByFilterAlone() {
+        assertFalse(revocationList.isRevoked("active"));
+
+        verify(revokedTokenRepository, never()).existsById(anyString());
+        assertEquals(0, revocationList.getDatabaseLookups());
+    }
+
+    @Test
+    void possibleHitIsCheckedInDatabase() {
+        when(revokedTokenRepository.findActiveIds(any())).thenReturn(List.of("expired"));
+        when(revokedTokenRepository.existsById("expired")).thenReturn(false);
+        revocationList.rebuild();
+
+        assertFalse(revocationList.isRevoked("expired"));
+
+        verify(revokedTokenRepository).existsById("expired");
+        assertEquals(1, revocationList.getDatabaseLookups());
+        assertEquals(1, revocationList.getFalsePositives());
+    }
+}
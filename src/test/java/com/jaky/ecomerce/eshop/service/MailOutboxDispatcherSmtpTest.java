@@ -0,0 +1,138 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.jaky.ecomerce.eshop.model.OutboxMessage;
+import com.jaky.ecomerce.eshop.model.OutboxStatus;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.repository.OutboxMessageRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Delivers outbox messages held by an in-memory repository stub to a local GreenMail SMTP server.
+ */
+class MailOutboxDispatcherSmtpTest {
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort());
+
+    private final OutboxMessageRepository outboxMessageRepository = mock(OutboxMessageRepository.class);
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private final List<OutboxMessage> outbox = new ArrayList<>();
+
+    private MailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties.Mail settings = applicationProperties.getMail();
+        settings.setFrom("no-reply@eshop.local");
+        settings.setRetryDelay(Duration.ofSeconds(30));
+
+        when(outboxMessageRepository.findDue(anyCollection(), any(Instant.class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Collection<?> statuses = invocation.getArgument(0);
+                    Instant now = invocation.getArgument(1);
+                    Pageable pageable = invocation.getArgument(2);
+                    return outbox.stream()
+                            .filter(message -> statuses.contains(message.getStatus()))
+                            .filter(message -> !message.getNextAttemptAt().isAfter(now))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+        when(outboxMessageRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<OutboxMessage> found = new ArrayList<>();
+
+            for (Object id : invocation.getArgument(0, Iterable.class)) {
+                outbox.stream().filter(message -> message.getId().equals(id)).forEach(found::add);
+            }
+            return found;
+        });
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        dispatcher = new MailOutboxDispatcher(outboxMessageRepository, mailSender,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), applicationProperties);
+    }
+
+    @Test
+    void deliversDueMessagesToMailServer() throws Exception {
+        queue(1L, "alice@example.com");
+        queue(2L, "bob@example.com");
+
+        dispatcher.dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("alice@example.com", received[0].getAllRecipients()[0].toString());
+        assertEquals("Activation code", received[0].getSubject());
+        assertTrue(outbox.stream().allMatch(message -> message.getStatus() == OutboxStatus.SENT));
+    }
+
+    @Test
+    void oneRunSendsAtMostTheBatchLimit() {
+        applicationProperties.getMail().setBatchSize(2);
+        applicationProperties.getMail().setMaxBatchesPerRun(2);
+
+        for (long id = 1; id <= 5; id++) {
+            queue(id, "user" + id + "@example.com");
+        }
+        dispatcher.dispatch();
+
+        assertEquals(4, greenMail.getReceivedMessages().length);
+        assertEquals(OutboxStatus.PENDING, outbox.get(4).getStatus());
+
+        dispatcher.dispatch();
+
+        assertEquals(5, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void unreachableMailServerReschedulesWithBackoff() {
+        OutboxMessage message = queue(1L, "alice@example.com");
+        greenMail.stop();
+        Instant before = Instant.now();
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertFalse(message.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+    }
+
+    private OutboxMessage queue(Long id, String recipient) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setRecipient(recipient);
+        message.setSubject("Activation code");
+        message.setBody("Your activation code");
+        message.setStatus(OutboxStatus.PENDING);
+        message.setNextAttemptAt(Instant.now());
+        message.setCreatedAt(Instant.now());
+        outbox.add(message);
+        return message;
+    }
+}
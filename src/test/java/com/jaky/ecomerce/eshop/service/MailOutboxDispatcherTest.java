@@ -0,0 +1,160 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.model.OutboxMessage;
+import com.jaky.ecomerce.eshop.model.OutboxStatus;
+import com.jaky.ecomerce.eshop.properties.ApplicationProperties;
+import com.jaky.ecomerce.eshop.repository.OutboxMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dispatches outbox messages stored in a repository stub to a mocked mail server.
+ */
+class MailOutboxDispatcherTest {
+    private final OutboxMessageRepository outboxMessageRepository = mock(OutboxMessageRepository.class);
+
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private MailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties.getMail().setMaxAttempts(4);
+        applicationProperties.getMail().setRetryDelay(Duration.ofSeconds(30));
+        dispatcher = new MailOutboxDispatcher(outboxMessageRepository, mailSender,
+                new TransactionTemplate(transactionManager), applicationProperties);
+    }
+
+    @Test
+    void sendsOutsideOfClaimTransaction() {
+        OutboxMessage message = stored(1L, 0);
+
+        dispatcher.dispatch();
+
+        InOrder order = inOrder(transactionManager, mailSender);
+        order.verify(transactionManager).commit(any());
+        order.verify(mailSender).send(any(SimpleMailMessage[].class));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(transactionManager).commit(any());
+        assertEquals(OutboxStatus.SENT, message.getStatus());
+    }
+
+    @Test
+    void failedMessageIsRetriedWithExponentialBackoff() {
+        OutboxMessage message = stored(1L, 2);
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(SimpleMailMessage[].class));
+        Instant before = Instant.now();
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxStatus.PENDING, message.getStatus());
+        assertEquals(3, message.getAttempts());
+        assertEquals("connection refused", message.getLastError());
+        Duration delay = Duration.between(before, message.getNextAttemptAt());
+        assertTrue(delay.compareTo(Duration.ofSeconds(120)) >= 0 && delay.compareTo(Duration.ofSeconds(121)) < 0,
+                "delay " + delay);
+    }
+
+    @Test
+    void messageFailsAfterMaximumAttempts() {
+        OutboxMessage message = stored(1L, 3);
+        doThrow(new MailSendException("mailbox unavailable")).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxStatus.FAILED, message.getStatus());
+        assertEquals(4, message.getAttempts());
+    }
+
+    @Test
+    void onlyRejectedMessagesOfBatchAreRetried() {
+        OutboxMessage delivered = stored(1L, 0);
+        OutboxMessage rejected = stored(2L, 0);
+        doAnswer(invocation -> {
+            SimpleMailMessage[] sent = (SimpleMailMessage[]) invocation.getRawArguments()[0];
+            throw new MailSendException(Map.of(sent[1], new Exception("unknown recipient")));
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+        when(outboxMessageRepository.findDue(anyCollection(), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(delivered, rejected));
+        when(outboxMessageRepository.findAllById(anyIterable())).thenReturn(List.of(delivered, rejected));
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxStatus.SENT, delivered.getStatus());
+        assertEquals(OutboxStatus.PENDING, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+    }
+
+    @Test
+    void messageClaimedAgainAfterLeaseExpiredIsLeftAlone() {
+        OutboxMessage message = stored(1L, 0);
+        Instant otherLease = Instant.now().plus(Duration.ofHours(1));
+        doAnswer(invocation -> {
+            message.setNextAttemptAt(otherLease);
+            throw new MailSendException("timeout");
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxStatus.SENDING, message.getStatus());
+        assertEquals(0, message.getAttempts());
+        assertEquals(otherLease, message.getNextAttemptAt());
+    }
+
+    @Test
+    void stopsWhenNothingIsDue() {
+        when(outboxMessageRepository.findDue(anyCollection(), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        verifyNoInteractions(mailSender);
+    }
+
+    /**
+     * Stub a due message which the repository returns when claiming and when recording the outcome.
+     */
+    private OutboxMessage stored(Long id, int attempts) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setRecipient("user" + id + "@example.com");
+        message.setSubject("Subject");
+        message.setBody("Body");
+        message.setStatus(OutboxStatus.PENDING);
+        message.setAttempts(attempts);
+        message.setNextAttemptAt(Instant.now());
+        message.setCreatedAt(Instant.now());
+        when(outboxMessageRepository.findDue(anyCollection(), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(message));
+        when(outboxMessageRepository.findAllById(anyIterable())).thenReturn(List.of(message));
+        return message;
+    }
+}
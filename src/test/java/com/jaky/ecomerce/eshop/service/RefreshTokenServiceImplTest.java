@@ -0,0 +1,168 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.jaky.ecomerce.eshop.dto.TokenRefreshDto;
+import com.jaky.ecomerce.eshop.model.RefreshToken;
+import com.jaky.ecomerce.eshop.model.Role;
+import com.jaky.ecomerce.eshop.repository.RefreshTokenRepository;
+import com.jaky.ecomerce.eshop.security.JwtAuthenticationException;
+import com.jaky.ecomerce.eshop.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rotates refresh tokens on an embedded database migrated with the application migrations.
+ * Every call commits on its own, as it does in the application.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceImplTest {
+    private static final long USER_ID = 1;
+
+    private static final String EMAIL = "user@example.com";
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final UserPrincipal user = new UserPrincipal(USER_ID, EMAIL, "password", EnumSet.of(Role.USER), true, 0);
+
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(dataSource).update("INSERT INTO users (id, email, active) VALUES (?, ?, TRUE)", USER_ID, EMAIL);
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, email -> user,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(refreshTokenService, "refreshValidityInSeconds", 3600L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        new JdbcTemplate(dataSource).update("DELETE FROM users WHERE id = ?", USER_ID);
+    }
+
+    @Test
+    void firstRefreshIssuesNewTokenOfSameFamily() {
+        String token = refreshTokenService.create(user);
+
+        TokenRefreshDto refreshed = refreshTokenService.rotate(token);
+
+        assertEquals(EMAIL, refreshed.getUser().getEmail());
+        assertNotEquals(token, refreshed.getRefreshToken());
+        List<RefreshToken> stored = refreshTokenRepository.findAll();
+        assertEquals(2, stored.size());
+        assertEquals(stored.get(0).getFamilyId(), stored.get(1).getFamilyId());
+        assertNotNull(refreshTokenService.rotate(refreshed.getRefreshToken()).getRefreshToken());
+    }
+
+    @Test
+    void replayOfUsedTokenRevokesFamily() {
+        String token = refreshTokenService.create(user);
+        String next = refreshTokenService.rotate(token).getRefreshToken();
+
+        assertThrows(JwtAuthenticationException.class, () -> refreshTokenService.rotate(token));
+
+        assertThrows(JwtAuthenticationException.class, () -> refreshTokenService.rotate(next));
+        assertTrue(refreshTokenRepository.findAll().stream().allMatch(RefreshToken::isRevoked));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshValidityInSeconds", -1L);
+        String token = refreshTokenService.create(user);
+
+        assertThrows(JwtAuthenticationException.class, () -> refreshTokenService.rotate(token));
+    }
+
+    @Test
+    void rejectsUnknownToken() {
+        assertThrows(JwtAuthenticationException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+
+    @Test
+    void rejectsTokenIssuedBeforeCredentialsChanged() {
+        String token = refreshTokenService.create(user);
+        UserPrincipal changed = new UserPrincipal(USER_ID, EMAIL, "password", EnumSet.of(Role.USER), true, 1);
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, email -> changed,
+                new TransactionTemplate(transactionManager));
+
+        assertThrows(JwtAuthenticationException.class, () -> refreshTokenService.rotate(token));
+    }
+
+    @Test
+    void familyRevokedWhileRotatingIssuesNoToken() {
+        String token = refreshTokenService.create(user);
+        String familyId = refreshTokenRepository.findAll().get(0).getFamilyId();
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, email -> {
+            // a logout between reading the token and the rotation
+            refreshTokenRepository.revokeFamily(familyId);
+            return user;
+        }, new TransactionTemplate(transactionManager));
+
+        assertThrows(JwtAuthenticationException.class, () -> refreshTokenService.rotate(token));
+
+        List<RefreshToken> stored = refreshTokenRepository.findAll();
+        assertEquals(1, stored.size());
+        assertTrue(stored.get(0).isRevoked());
+        assertNull(stored.get(0).getUsedAt());
+    }
+
+    @Test
+    void concurrentRefreshesOfSameTokenLetExactlyOneWin() throws Exception {
+        String token = refreshTokenService.create(user);
+        int threads = 8;
+        AtomicInteger rotated = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    refreshTokenService.rotate(token);
+                    rotated.incrementAndGet();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException exception) {
+                    // the losers are rejected
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1, rotated.get());
+    }
+}
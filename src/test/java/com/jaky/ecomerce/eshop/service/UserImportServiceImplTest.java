@@ -0,0 +1,185 @@
+package com.jaky.ecomerce.eshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaky.ecomerce.eshop.dto.UserImportResultDto;
+import com.jaky.ecomerce.eshop.model.User;
+import com.jaky.ecomerce.eshop.repository.UserRepository;
+import com.jaky.ecomerce.eshop.security.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Imports users into a repository stub which behaves like the unique email index.
+ */
+class UserImportServiceImplTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final Set<String> storedEmails = new HashSet<>();
+
+    private final List<User> savedUsers = new ArrayList<>();
+
+    private OffloadingPasswordEncoder passwordEncoder;
+
+    private UserImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        storedEmails.add("Existing@Example.com");
+        when(userRepository.findExistingEmails(anyCollection())).thenAnswer(invocation -> {
+            List<String> existing = new ArrayList<>();
+
+            for (Object email : invocation.getArgument(0, Collection.class)) {
+                if (storedEmails.contains(email)) {
+                    existing.add((String) email);
+                }
+            }
+            return existing;
+        });
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+
+            for (User user : users) {
+                if (storedEmails.contains(user.getEmail())) {
+                    throw new DataIntegrityViolationException("idx_users_email");
+                }
+            }
+            for (User user : users) {
+                store(user);
+            }
+            return users;
+        });
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+
+            if (storedEmails.contains(user.getEmail())) {
+                throw new DataIntegrityViolationException("idx_users_email");
+            }
+            store(user);
+            return user;
+        });
+        passwordEncoder = new OffloadingPasswordEncoder(new PrefixPasswordEncoder(), 2, 16, Duration.ofSeconds(5),
+                2, new SimpleMeterRegistry());
+        importService = new UserImportServiceImpl(userRepository, passwordEncoder,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void trimsEmailsAndSkipsDuplicatesAndMalformedRows() throws IOException {
+        UserImportResultDto result = importService.importCsv(stream(
+                "username,email,password",
+                "alice,Alice@Example.com ,secret",
+                "alice2, Alice@Example.com,secret",
+                "broken,row",
+                "bob,no-at-sign,secret",
+                "carol,carol@example.com,",
+                "",
+                "erin,erin@example.com,secret"));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(3, result.getInvalid());
+        assertEquals(List.of("Alice@Example.com", "erin@example.com"),
+                savedUsers.stream().map(User::getEmail).toList());
+        assertEquals("hashed:secret", savedUsers.get(0).getPassword());
+    }
+
+    @Test
+    void findsRegisteredMixedCaseEmailAsDuplicate() throws IOException {
+        UserImportResultDto result = importService.importCsv(stream(
+                "username,email,password",
+                "dave, Existing@Example.com ,secret"));
+
+        assertEquals(0, result.getImported());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(List.of(), savedUsers);
+    }
+
+    @Test
+    void findsDuplicatesOfEarlierChunksInDatabase() throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        for (int i = 0; i < 1001; i++) {
+            lines.add("{\"username\":\"user" + i + "\",\"email\":\"user" + i + "@example.com\",\"password\":\"p\"}");
+        }
+        lines.add("{\"username\":\"again\",\"email\":\" user0@example.com \",\"password\":\"p\"}");
+        lines.add("{not json");
+
+        UserImportResultDto result = importService.importJson(stream(lines.toArray(new String[0])));
+
+        assertEquals(1001, result.getImported());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(1, result.getInvalid());
+    }
+
+    @Test
+    void reportsRowsRegisteredConcurrentlyAsDuplicates() throws IOException {
+        doAnswer(invocation -> {
+            storedEmails.add("taken@example.com");
+            return List.of();
+        }).when(userRepository).findExistingEmails(anyCollection());
+
+        UserImportResultDto result = importService.importCsv(stream(
+                "username,email,password",
+                "frank,frank@example.com,secret",
+                "taken,taken@example.com,secret",
+                "grace,grace@example.com,secret"));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(List.of("frank@example.com", "grace@example.com"),
+                savedUsers.stream().map(User::getEmail).toList());
+    }
+
+    private void store(User user) {
+        storedEmails.add(user.getEmail());
+        savedUsers.add(user);
+    }
+
+    private static ByteArrayInputStream stream(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cheap stand-in for BCrypt.
+     */
+    private static final class PrefixPasswordEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}